@@ -59,7 +59,7 @@ public class RateLimitingFilter implements WebFilter {
                 });
     }
 
-    private String getClientId(ServerWebExchange exchange) {
+    String getClientId(ServerWebExchange exchange) {
         // Get client IP or use authenticated user
         String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -0,0 +1,71 @@
+package com.devflow.analysis.service;
+
+import com.devflow.analysis.dto.CodeAnalysisResponse;
+import com.devflow.analysis.entity.CodeAnalysis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping used by every read endpoint and every status message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeAnalysisServiceBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int itemCount;
+
+    private CodeAnalysisService analysisService;
+    private CodeAnalysis analysis;
+
+    @Setup
+    public void setUp() {
+        // mapToResponse touches none of the collaborators
+        analysisService = new CodeAnalysisService(null, null, null, null, null, null, null);
+
+        List<String> issues = new ArrayList<>();
+        List<String> suggestions = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            issues.add("Issue " + i + ": method on line " + i + " is too long");
+            suggestions.add("Suggestion " + i + ": extract a helper method");
+        }
+
+        analysis = new CodeAnalysis();
+        analysis.setId(42L);
+        analysis.setUserId("user-1");
+        analysis.setFileName("OrderService.java");
+        analysis.setFileType("java");
+        analysis.setStatus(CodeAnalysis.AnalysisStatus.COMPLETED);
+        analysis.setComplexityScore(72);
+        analysis.setQualityScore(64);
+        analysis.setMaintainabilityScore(58);
+        analysis.setIssues(issues);
+        analysis.setSuggestions(suggestions);
+        analysis.setAnalysisResult("The code is generally readable.");
+        analysis.setCreatedAt(LocalDateTime.now().minusMinutes(3));
+        analysis.setCompletedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public CodeAnalysisResponse mapToResponse() {
+        return analysisService.mapToResponse(analysis);
+    }
+}
@@ -0,0 +1,136 @@
+package com.devflow.analysis.service;
+
+import com.devflow.analysis.dto.AnalysisResultDto;
+import com.devflow.analysis.dto.OllamaResponse;
+import com.devflow.analysis.prompt.PromptTemplateRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt building and response parsing around the Ollama call. {@code legacyStringFormat}
+ * keeps the pre-registry {@code String.format} prompt as a baseline; run with
+ * {@code -prof gc} to compare allocation per prompt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OllamaServiceBenchmark {
+
+    private static final String LEGACY_PROMPT = """
+            Analyze the following %s code from file '%s' and provide a comprehensive code quality assessment.
+
+            Please provide your analysis in the following structured format:
+
+            COMPLEXITY_SCORE: [score from 1-100, where 100 is least complex]
+            QUALITY_SCORE: [score from 1-100, where 100 is highest quality]
+            MAINTAINABILITY_SCORE: [score from 1-100, where 100 is most maintainable]
+
+            ISSUES:
+            - [List specific issues found in the code]
+            - [Each issue on a new line with dash prefix]
+
+            SUGGESTIONS:
+            - [List specific improvement suggestions]
+            - [Each suggestion on a new line with dash prefix]
+
+            SUMMARY:
+            [Provide a brief summary of the overall code quality and main recommendations]
+
+            Code to analyze:
+            ```%s
+            %s
+            ```
+
+            Focus on:
+            1. Code complexity and readability
+            2. Best practices adherence
+            3. Potential bugs and security issues
+            4. Performance considerations
+            5. Maintainability aspects
+            """;
+
+    @Param({"50", "500", "5000"})
+    private int sourceLines;
+
+    @Param({"5", "50"})
+    private int responseItems;
+
+    private OllamaService ollamaService;
+    private PromptTemplateRegistry promptRegistry;
+    private String sourceCode;
+    private OllamaResponse response;
+
+    @Setup
+    public void setUp() {
+        ollamaService = new OllamaService(WebClient.builder(), new ObjectMapper());
+
+        promptRegistry = new PromptTemplateRegistry(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(promptRegistry, "location", "classpath:prompts/");
+        ReflectionTestUtils.setField(promptRegistry, "defaultVariant", "default");
+        ReflectionTestUtils.setField(promptRegistry, "experimentVariant", "compact");
+        ReflectionTestUtils.setField(promptRegistry, "experimentPercentage", 0);
+        promptRegistry.reload();
+
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < sourceLines; i++) {
+            source.append("    int value").append(i).append(" = compute(").append(i).append(") * 2;\n");
+        }
+        sourceCode = source.toString();
+
+        StringBuilder text = new StringBuilder()
+                .append("COMPLEXITY_SCORE: 72\nQUALITY_SCORE: 64\nMAINTAINABILITY_SCORE: 58\n\nISSUES:\n");
+        for (int i = 0; i < responseItems; i++) {
+            text.append("- Issue ").append(i).append(": method on line ").append(i * 7).append(" is too long\n");
+        }
+        text.append("\nSUGGESTIONS:\n");
+        for (int i = 0; i < responseItems; i++) {
+            text.append("- Suggestion ").append(i).append(": extract a helper method\n");
+        }
+        text.append("\nSUMMARY:\nThe code is generally readable but several methods need refactoring.\n");
+
+        response = new OllamaResponse();
+        response.setModel("codellama:7b");
+        response.setResponse(text.toString());
+        response.setDone(true);
+    }
+
+    @Benchmark
+    public String renderDefaultPrompt() {
+        return promptRegistry.select("java", "complexity,security", 42L)
+                .render("OrderService.java", sourceCode);
+    }
+
+    @Benchmark
+    public String renderCompactPrompt() {
+        return promptRegistry.get("compact", "java", "complexity,security")
+                .render("OrderService.java", sourceCode);
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        return String.format(LEGACY_PROMPT, "java", "OrderService.java", "java", sourceCode);
+    }
+
+    @Benchmark
+    public AnalysisResultDto parseAnalysisResult() {
+        return ollamaService.parseAnalysisResult(response);
+    }
+}
@@ -0,0 +1,34 @@
+package com.devflow.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH with machine-readable output by default, so successive releases can be
+ * compared from {@code target/jmh-result.json}:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                        # everything
+ * java -jar target/benchmarks.jar ReportGeneration -p issueCount=1000
+ * java -jar target/benchmarks.jar -rff other.json        # any JMH option still works
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rff");
+            jmhArgs.add("target/jmh-result.json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
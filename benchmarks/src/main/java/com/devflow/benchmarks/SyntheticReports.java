@@ -0,0 +1,118 @@
+package com.devflow.benchmarks;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.CodeQualityMetrics;
+import com.devflow.report.model.IssueSeverity;
+import com.devflow.report.model.ReportRollup;
+import com.devflow.report.model.ReportStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic report fixtures for the report-service benchmarks.
+ */
+public final class SyntheticReports {
+
+    private static final String[] LANGUAGES = {"java", "python", "javascript", "typescript", "go", "rust"};
+    private static final String[] ISSUE_TYPES = {"complexity", "naming", "security", "performance", "style"};
+    private static final IssueSeverity[] SEVERITIES = IssueSeverity.values();
+
+    private SyntheticReports() {
+    }
+
+    public static AnalysisReport report(int issueCount, long seed) {
+        Random random = new Random(seed);
+
+        AnalysisReport report = new AnalysisReport("user-" + (seed % 20), "project-" + (seed % 5),
+                "File" + seed + ".java", LANGUAGES[random.nextInt(LANGUAGES.length)]);
+        report.setId(Long.toHexString(seed));
+        report.setStatus(ReportStatus.COMPLETED);
+
+        CodeQualityMetrics metrics = new CodeQualityMetrics();
+        metrics.setLinesOfCode(100 + random.nextInt(5000));
+        metrics.setCyclomaticComplexity(1 + random.nextInt(50));
+        metrics.setMaintainabilityIndex(random.nextDouble() * 100);
+        metrics.setDuplicatedLines(random.nextInt(200));
+        metrics.setCodeSmells(random.nextInt(40));
+        metrics.setTestCoverage(random.nextDouble() * 100);
+        metrics.setOverallGrade(String.valueOf((char) ('A' + random.nextInt(5))));
+        report.setQualityMetrics(metrics);
+
+        List<CodeIssue> issues = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            issues.add(new CodeIssue(
+                    SEVERITIES[random.nextInt(SEVERITIES.length)],
+                    ISSUE_TYPES[random.nextInt(ISSUE_TYPES.length)],
+                    "Method process" + i + " has nested conditionals <if> & loops that are hard to follow",
+                    1 + random.nextInt(5000),
+                    "Extract the inner block of process" + i + " into a helper method"));
+        }
+        report.setIssues(issues);
+
+        List<String> suggestions = new ArrayList<>();
+        for (int i = 0; i < Math.max(3, issueCount / 10); i++) {
+            suggestions.add("Suggestion " + i + ": reduce coupling between modules");
+        }
+        report.setSuggestions(suggestions);
+
+        Map<String, Object> rawData = new HashMap<>();
+        rawData.put("model", "codellama:7b");
+        rawData.put("promptTokens", 1200 + random.nextInt(4000));
+        report.setRawAnalysisData(rawData);
+
+        LocalDateTime created = LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(seed % 100_000);
+        report.setCreatedAt(created);
+        report.setUpdatedAt(created.plusMinutes(2));
+        report.setCompletedAt(created.plusMinutes(2));
+        return report;
+    }
+
+    public static List<AnalysisReport> reports(int count, int issuesPerReport) {
+        List<AnalysisReport> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reports.add(report(issuesPerReport, i));
+        }
+        return reports;
+    }
+
+    /**
+     * One daily bucket per language for each of the {@code days} days up to {@code today}, as
+     * a user active every day in {@code languages} languages has.
+     */
+    public static List<ReportRollup> rollups(String userId, LocalDate today, int days, int languages, long seed) {
+        Random random = new Random(seed);
+        List<ReportRollup> rollups = new ArrayList<>(days * languages);
+        for (int d = 0; d < days; d++) {
+            String day = today.minusDays(d).toString();
+            for (int l = 0; l < languages; l++) {
+                String language = LANGUAGES[l % LANGUAGES.length] + (l < LANGUAGES.length ? "" : "-" + l);
+                ReportRollup rollup = new ReportRollup();
+                rollup.setId(ReportRollup.bucketId(userId, language, day));
+                rollup.setUserId(userId);
+                rollup.setLanguage(language);
+                rollup.setDay(day);
+                rollup.setReportCount(1 + random.nextInt(20));
+                rollup.setQualityCount(rollup.getReportCount());
+                double min = random.nextDouble() * 50;
+                double max = min + random.nextDouble() * 50;
+                rollup.setMaintainabilityMin(min);
+                rollup.setMaintainabilityMax(max);
+                rollup.setMaintainabilitySum((min + max) / 2 * rollup.getReportCount());
+                Map<String, Long> issueCounts = new HashMap<>();
+                for (IssueSeverity severity : SEVERITIES) {
+                    issueCounts.put(severity.name(), (long) random.nextInt(30));
+                }
+                rollup.setIssueCounts(issueCounts);
+                rollups.add(rollup);
+            }
+        }
+        return rollups;
+    }
+}
@@ -0,0 +1,128 @@
+package com.devflow.report.service;
+
+import com.devflow.benchmarks.SyntheticReports;
+import com.devflow.report.dto.UserAnalyticsStats;
+import com.devflow.report.model.IssueSeverity;
+import com.devflow.report.model.ReportRollup;
+import com.devflow.report.repository.AnalysisReportRepository;
+import com.devflow.report.repository.ReportRollupRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What is left in the JVM of building a user's analytics, now that the counting runs in Mongo:
+ * mapping the aggregation's {@link UserAnalyticsStats}, or folding the daily rollup buckets
+ * into week and month totals. Repositories are in-memory stubs and the read cache is off, so
+ * only that work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsServiceBenchmark {
+
+    @Param({"aggregation", "rollups"})
+    private String source;
+
+    @Param({"1", "6", "50"})
+    private int languages;
+
+    private AnalyticsService analyticsService;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        List<ReportRollup> rollups = SyntheticReports.rollups("user-1", today, 31, languages, 5);
+        UserAnalyticsStats stats = stats(rollups);
+
+        AnalysisReportRepository reportRepository = stub(AnalysisReportRepository.class,
+                "aggregateUserAnalytics", stats);
+        ReportRollupRepository rollupRepository = stub(ReportRollupRepository.class,
+                "findByUserIdAndDayGreaterThanEqual", rollups);
+
+        ReportRollupService rollupService = new ReportRollupService();
+        ReflectionTestUtils.setField(rollupService, "rollupRepository", rollupRepository);
+        ReflectionTestUtils.setField(rollupService, "enabled", source.equals("rollups"));
+
+        analyticsService = new AnalyticsService();
+        ReflectionTestUtils.setField(analyticsService, "reportRepository", reportRepository);
+        ReflectionTestUtils.setField(analyticsService, "rollupService", rollupService);
+        ReflectionTestUtils.setField(analyticsService, "readCache", new ReportReadCache());
+    }
+
+    @Benchmark
+    public Map<String, Object> generateUserAnalytics() {
+        return analyticsService.generateUserAnalytics("user-1");
+    }
+
+    // The aggregation's answer for the same buckets: one row per language and per severity
+    private static UserAnalyticsStats stats(List<ReportRollup> rollups) {
+        UserAnalyticsStats.WindowStats month = new UserAnalyticsStats.WindowStats();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        Map<String, Long> severityCounts = new LinkedHashMap<>();
+        for (ReportRollup rollup : rollups) {
+            month.setCount(month.getCount() + rollup.getReportCount());
+            counts.merge(rollup.getLanguage(), rollup.getReportCount(), Long::sum);
+            for (IssueSeverity severity : IssueSeverity.values()) {
+                severityCounts.merge(severity.name(), rollup.getIssueCount(severity), Long::sum);
+            }
+        }
+        month.setAvgQuality(50.0);
+        month.setMinQuality(10.0);
+        month.setMaxQuality(90.0);
+
+        List<UserAnalyticsStats.LanguageCount> languages = new ArrayList<>();
+        counts.forEach((name, count) -> {
+            UserAnalyticsStats.LanguageCount language = new UserAnalyticsStats.LanguageCount();
+            language.setLanguage(name);
+            language.setCount(count);
+            languages.add(language);
+        });
+
+        List<UserAnalyticsStats.SeverityCount> severities = new ArrayList<>();
+        severityCounts.forEach((name, count) -> {
+            UserAnalyticsStats.SeverityCount severity = new UserAnalyticsStats.SeverityCount();
+            severity.setSeverity(name);
+            severity.setCount(count);
+            severities.add(severity);
+        });
+
+        UserAnalyticsStats stats = new UserAnalyticsStats();
+        stats.setWeekly(List.of(month));
+        stats.setMonthly(List.of(month));
+        stats.setLanguages(languages);
+        stats.setSeverities(severities);
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String methodName, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,180 @@
+package com.devflow.report.service;
+
+import com.devflow.benchmarks.SyntheticReports;
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.CodeIssue;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Retained heap per in-flight PDF render, which JMH's allocation profiler cannot show.
+ * Starts {@code concurrency} renders of the same report, parks every one of them once it has
+ * written half of its output, forces a GC and divides the heap growth by the number of renders.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.devflow.report.service.PdfHeapProbe [concurrency] [issues]
+ * </pre>
+ *
+ * {@code legacy} is the renderer before large-table mode: the whole issues table stays in
+ * memory until the document is closed.
+ */
+public final class PdfHeapProbe {
+
+    private PdfHeapProbe() {
+    }
+
+    interface Renderer {
+        void render(AnalysisReport report, OutputStream out) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int issues = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        AnalysisReport report = SyntheticReports.report(issues, 7);
+        ReportGenerationService service = new ReportGenerationService();
+
+        System.out.printf("%d concurrent renders, %d issues per report%n", concurrency, issues);
+        probe("legacy", PdfHeapProbe::renderLegacy, report, concurrency);
+        probe("streaming", service::writePdfReport, report, concurrency);
+    }
+
+    private static void probe(String name, Renderer renderer, AnalysisReport report, int concurrency)
+            throws Exception {
+        // Warm up and learn the output size, so every render can be parked at its midpoint
+        CountingOutputStream counter = new CountingOutputStream();
+        for (int i = 0; i < 3; i++) {
+            counter.count = 0;
+            renderer.render(report, counter);
+        }
+        long midpoint = counter.count / 2;
+
+        long baseline = usedHeapAfterGc();
+        CountDownLatch parked = new CountDownLatch(concurrency);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    renderer.render(report, new ParkingOutputStream(midpoint, parked, release));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "pdf-probe-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        parked.await();
+        long inFlight = usedHeapAfterGc();
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%-10s %8.1f KiB retained per in-flight PDF (%d KiB output)%n",
+                name, (inFlight - baseline) / 1024.0 / concurrency, counter.count / 1024);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void renderLegacy(AnalysisReport report, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        try (PdfDocument pdfDoc = new PdfDocument(writer);
+             Document document = new Document(pdfDoc)) {
+
+            document.add(new Paragraph("Code Quality Analysis Report")
+                    .setFontSize(20)
+                    .setBold()
+                    .setTextAlignment(TextAlignment.CENTER));
+            document.add(new Paragraph("Project: " + report.getProjectName()).setFontSize(14));
+
+            Table issuesTable = new Table(UnitValue.createPercentArray(4)).useAllAvailableWidth();
+            issuesTable.addHeaderCell(new Cell().add(new Paragraph("Severity").setBold()));
+            issuesTable.addHeaderCell(new Cell().add(new Paragraph("Type").setBold()));
+            issuesTable.addHeaderCell(new Cell().add(new Paragraph("Line").setBold()));
+            issuesTable.addHeaderCell(new Cell().add(new Paragraph("Description").setBold()));
+
+            for (CodeIssue issue : report.getIssues()) {
+                issuesTable.addCell(issue.getSeverity().toString());
+                issuesTable.addCell(issue.getType());
+                issuesTable.addCell(String.valueOf(issue.getLineNumber()));
+                issuesTable.addCell(issue.getDescription());
+            }
+            document.add(issuesTable);
+
+            for (int i = 0; i < report.getSuggestions().size(); i++) {
+                document.add(new Paragraph((i + 1) + ". " + report.getSuggestions().get(i)));
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    // Discards output and blocks the rendering thread once, when it crosses the midpoint
+    private static final class ParkingOutputStream extends OutputStream {
+        private final long parkAt;
+        private final CountDownLatch parked;
+        private final CountDownLatch release;
+        private long count;
+        private boolean hasParked;
+
+        private ParkingOutputStream(long parkAt, CountDownLatch parked, CountDownLatch release) {
+            this.parkAt = parkAt;
+            this.parked = parked;
+            this.release = release;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+            if (!hasParked && count >= parkAt) {
+                hasParked = true;
+                parked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while parked", e);
+                }
+            }
+        }
+    }
+}
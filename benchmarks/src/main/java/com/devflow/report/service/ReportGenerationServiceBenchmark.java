@@ -0,0 +1,78 @@
+package com.devflow.report.service;
+
+import com.devflow.benchmarks.SyntheticReports;
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.ReportFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * PDF, HTML and JSON rendering at several report sizes. {@code generate} writes to a temp
+ * file as report storage does, gzipping HTML and JSON, so it includes compression and the
+ * write to the page cache; {@code stream} renders into a discarding stream, as the /stream
+ * endpoint does.
+ * Retained heap per concurrent PDF is measured separately by {@link PdfHeapProbe}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportGenerationServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int issueCount;
+
+    @Param({"PDF", "HTML", "JSON"})
+    private ReportFormat format;
+
+    private ReportGenerationService generationService;
+    private AnalysisReport report;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        generationService = new ReportGenerationService();
+        report = SyntheticReports.report(issueCount, 7);
+        output = Files.createTempFile("devflow-bench-", "." + format.name().toLowerCase());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public Path generate() throws IOException {
+        OutputStream file = new BufferedOutputStream(Files.newOutputStream(output));
+        try (OutputStream out = format == ReportFormat.PDF ? file : new GZIPOutputStream(file, 8192)) {
+            generationService.writeReport(report, format, out);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        generationService.writeReport(report, format, OutputStream.nullOutputStream());
+    }
+}
@@ -1,19 +1,32 @@
 package com.devflow.analysis.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
 
 @Configuration
 public class CodeAnalysisConfig {
 
+    // Shared with report-service, which binds analysis.results to this routing key
+    public static final String DEVFLOW_EXCHANGE = "devflow.exchange";
+    public static final String ANALYSIS_COMPLETED_ROUTING_KEY = "analysis.completed";
+
+    private static final int OLLAMA_SPARE_CONNECTIONS = 4;
+
     // RabbitMQ Configuration
     @Bean
     public TopicExchange analysisStatusExchange() {
@@ -21,8 +34,8 @@ public class CodeAnalysisConfig {
     }
 
     @Bean
-    public TopicExchange reportGenerationExchange() {
-        return new TopicExchange("report.generation.exchange");
+    public TopicExchange devflowExchange() {
+        return new TopicExchange(DEVFLOW_EXCHANGE);
     }
 
     @Bean
@@ -35,11 +48,6 @@ public class CodeAnalysisConfig {
         return QueueBuilder.durable("analysis.failed.queue").build();
     }
 
-    @Bean
-    public Queue reportGenerationQueue() {
-        return QueueBuilder.durable("report.generation.queue").build();
-    }
-
     @Bean
     public Binding analysisCompletedBinding() {
         return BindingBuilder
@@ -57,32 +65,47 @@ public class CodeAnalysisConfig {
     }
 
     @Bean
-    public Binding reportGenerationBinding() {
-        return BindingBuilder
-                .bind(reportGenerationQueue())
-                .to(reportGenerationExchange())
-                .with("report.generate");
+    public CompactMessageConverter messageConverter(
+            ObjectMapper objectMapper,
+            @Value("${analysis.messaging.encoding:json}") String encoding,
+            @Value("${analysis.messaging.compress-above-bytes:1024}") int compressAboveBytes) {
+        return new CompactMessageConverter(objectMapper,
+                CompactMessageConverter.Encoding.valueOf(encoding.trim().toUpperCase()), compressAboveBytes,
+                "com.devflow.analysis.dto");
     }
 
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
-    }
-
-    @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         CompactMessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(messageConverter());
+        template.setMessageConverter(messageConverter);
         return template;
     }
 
     // WebClient Configuration for Ollama
     @Bean
-    public WebClient.Builder webClientBuilder() {
+    public WebClient.Builder webClientBuilder(ConnectionProvider ollamaConnectionProvider) {
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(ollamaConnectionProvider)))
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024)); // 10MB
     }
 
+    // Reactor Netty's default pool holds 16 connections and gives up on an acquire after 45s, far
+    // below the generations the pipeline allows. One connection per allowed generation, plus a few
+    // for availability checks, and an acquire may wait as long as a generation may take.
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider ollamaConnectionProvider(
+            @Value("${analysis.reactive.max-in-flight:256}") int maxInFlight,
+            @Value("${analysis.virtual-threads.ollama-permits:256}") int ollamaPermits,
+            @Value("${ollama.timeout:300000}") long timeoutMillis) {
+        int maxConnections = Math.max(maxInFlight, ollamaPermits) + OLLAMA_SPARE_CONNECTIONS;
+        return ConnectionProvider.builder("ollama")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+    }
+
     // Async Configuration
     @Bean(name = "analysisTaskExecutor")
     public Executor analysisTaskExecutor() {
@@ -96,5 +119,14 @@ public class CodeAnalysisConfig {
         executor.initialize();
         return executor;
     }
+
+    // Bounded scheduler for the blocking JPA and RabbitMQ calls of the reactive analysis pipeline.
+    // Sized to the connection pool so waiting generations never hold a thread.
+    @Bean(name = "analysisScheduler", destroyMethod = "dispose")
+    public Scheduler analysisScheduler(
+            @Value("${analysis.reactive.db-threads:10}") int dbThreads,
+            @Value("${analysis.reactive.db-queue-capacity:10000}") int dbQueueCapacity) {
+        return Schedulers.newBoundedElastic(dbThreads, dbQueueCapacity, "analysis-db");
+    }
 }
 
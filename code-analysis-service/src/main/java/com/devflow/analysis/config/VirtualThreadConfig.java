@@ -0,0 +1,96 @@
+package com.devflow.analysis.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Virtual-thread execution mode, enabled with {@code analysis.execution.mode=virtual-threads}
+ * (the {@code virtual-threads} profile sets it together with Tomcat's virtual threads).
+ * Requires a Java 21+ runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "analysis.execution.mode", havingValue = "virtual-threads")
+public class VirtualThreadConfig {
+
+    @Bean(name = "analysisVirtualThreadExecutor")
+    public AsyncTaskExecutor analysisVirtualThreadExecutor() {
+        return new VirtualThreadTaskExecutor("analysis-vt-");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "analysis.virtual-threads.pinning-detection.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${analysis.virtual-threads.pinning-detection.threshold-ms:20}") long thresholdMillis) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMillis));
+    }
+
+    /**
+     * Streams JFR {@code jdk.VirtualThreadPinned} events, which fire when a virtual thread
+     * blocks while holding a monitor ({@code synchronized}) or inside native code such as
+     * some JDBC paths, and so keeps its carrier thread busy.
+     */
+    @Slf4j
+    public static class VirtualThreadPinningMonitor implements DisposableBean {
+
+        private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+        private static final int MAX_LOGGED_FRAMES = 8;
+
+        private final RecordingStream recordingStream;
+        private final Counter pinnedCounter;
+
+        public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+            this.pinnedCounter = Counter.builder("analysis.virtual-threads.pinned")
+                    .description("Virtual threads pinned to their carrier longer than the threshold")
+                    .register(meterRegistry);
+
+            this.recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+            recordingStream.startAsync();
+
+            log.info("Virtual thread pinning detection enabled (threshold {} ms)", threshold.toMillis());
+        }
+
+        private void onPinned(RecordedEvent event) {
+            pinnedCounter.increment();
+            log.warn("Virtual thread pinned for {} ms:\n{}",
+                    event.getDuration().toMillis(), formatStackTrace(event.getStackTrace()));
+        }
+
+        private String formatStackTrace(RecordedStackTrace stackTrace) {
+            if (stackTrace == null) {
+                return "\t<no stack trace>";
+            }
+            return stackTrace.getFrames().stream()
+                    .limit(MAX_LOGGED_FRAMES)
+                    .map(this::formatFrame)
+                    .collect(Collectors.joining("\n"));
+        }
+
+        private String formatFrame(RecordedFrame frame) {
+            return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                    + " (line " + frame.getLineNumber() + ")";
+        }
+
+        @Override
+        public void destroy() {
+            recordingStream.close();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.devflow.analysis.controller;
 
 import com.devflow.analysis.dto.CodeAnalysisRequest;
 import com.devflow.analysis.dto.CodeAnalysisResponse;
+import com.devflow.analysis.prompt.PromptTemplateRegistry;
 import com.devflow.analysis.service.CodeAnalysisService;
 import com.devflow.analysis.service.OllamaService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,6 +35,7 @@ public class CodeAnalysisController {
 
     private final CodeAnalysisService analysisService;
     private final OllamaService ollamaService;
+    private final PromptTemplateRegistry promptRegistry;
 
     @PostMapping("/submit")
     @Operation(summary = "Submit code for analysis", description = "Submit source code for AI-powered quality analysis")
@@ -178,6 +180,20 @@ public class CodeAnalysisController {
         return ResponseEntity.ok(health);
     }
 
+    @PostMapping("/prompts/reload")
+    @Operation(summary = "Reload prompt templates", description = "Re-read prompt templates from the configured location (admin only)")
+    @ApiResponse(responseCode = "200", description = "Prompt templates reloaded")
+    public ResponseEntity<Map<String, Object>> reloadPrompts() {
+        promptRegistry.reload();
+
+        Map<String, Object> result = Map.of(
+                "defaultPromptVersion", promptRegistry.select("java", "", 0L).getVersionId(),
+                "timestamp", System.currentTimeMillis()
+        );
+
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/supported-types")
     @Operation(summary = "Get supported file types", description = "Get list of supported file types for analysis")
     @ApiResponse(responseCode = "200", description = "Supported file types")
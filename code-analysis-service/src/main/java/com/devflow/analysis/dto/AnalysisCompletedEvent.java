@@ -0,0 +1,54 @@
+package com.devflow.analysis.dto;
+
+import com.devflow.analysis.entity.CodeAnalysis;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published to report-service when an analysis completes. report-service creates or completes
+ * the analysis's report from it in one upsert keyed by {@code analysisId}, so redelivery is
+ * harmless. Sent with the AMQP {@code type} property set to {@link #TYPE}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisCompletedEvent {
+    public static final String TYPE = "analysis.completed";
+
+    private Long analysisId;
+    private String userId;
+    private String projectName;
+    private String fileName;
+    private String fileType;
+    private Integer complexityScore;
+    private Integer qualityScore;
+    private Integer maintainabilityScore;
+    private List<String> issues;
+    private List<String> suggestions;
+    private String summary;
+    private String promptVersion;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public static AnalysisCompletedEvent from(CodeAnalysis analysis) {
+        return new AnalysisCompletedEvent(
+                analysis.getId(),
+                analysis.getUserId(),
+                analysis.getProjectName(),
+                analysis.getFileName(),
+                analysis.getFileType(),
+                analysis.getComplexityScore(),
+                analysis.getQualityScore(),
+                analysis.getMaintainabilityScore(),
+                analysis.getIssues(),
+                analysis.getSuggestions(),
+                analysis.getAnalysisResult(),
+                analysis.getPromptVersion(),
+                analysis.getCreatedAt(),
+                analysis.getCompletedAt());
+    }
+}
@@ -15,6 +15,7 @@ public class CodeAnalysisRequest {
     private String fileType;
     private String sourceCode;
     private String userId;
+    private String projectName; // optional, groups reports
     private List<String> analysisTypes; // ["complexity", "quality", "security", "performance"]
 }
 
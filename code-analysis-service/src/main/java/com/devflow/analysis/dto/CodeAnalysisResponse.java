@@ -25,4 +25,5 @@ public class CodeAnalysisResponse {
     private LocalDateTime createdAt;
     private LocalDateTime completedAt;
     private String analysisResult;
+    private String promptVersion;
 }
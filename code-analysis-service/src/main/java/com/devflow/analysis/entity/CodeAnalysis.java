@@ -24,6 +24,10 @@ public class CodeAnalysis {
     @Column(nullable = false)
     private String fileName;
 
+    // Optional; groups the analysis's report with others from the same project
+    @Column(name = "project_name")
+    private String projectName;
+
     @Column(nullable = false)
     private String fileType;
 
@@ -36,6 +40,14 @@ public class CodeAnalysis {
     @Column(columnDefinition = "TEXT")
     private String analysisResult;
 
+    // Normalized, comma-separated analysis types; empty means all
+    @Column(name = "analysis_types")
+    private String analysisTypes;
+
+    // Version id of the prompt template that produced the result
+    @Column(name = "prompt_version")
+    private String promptVersion;
+
     @Column(nullable = false)
     private Integer complexityScore;
 
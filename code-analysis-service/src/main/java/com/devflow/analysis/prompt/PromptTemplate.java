@@ -0,0 +1,137 @@
+package com.devflow.analysis.prompt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt template compiled once into literal segments and the two per-request slots,
+ * {@code {{fileName}}} and {@code {{sourceCode}}}. Every other placeholder is resolved
+ * at compile time, so rendering is a single exactly-sized {@link StringBuilder}.
+ */
+public final class PromptTemplate {
+
+    static final String FILE_NAME = "fileName";
+    static final String SOURCE_CODE = "sourceCode";
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String versionId;
+    private final String variant;
+    // literals[i] is followed by the value of slots[i]; the last slot is always null
+    private final String[] literals;
+    private final String[] slots;
+    private final int literalLength;
+
+    private PromptTemplate(String variant, String versionId, String[] literals, String[] slots) {
+        this.variant = variant;
+        this.versionId = versionId;
+        this.literals = literals;
+        this.slots = slots;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @param staticValues values inlined at compile time (e.g. language, focus list)
+     * @throws IllegalArgumentException on unknown or unterminated placeholders
+     */
+    public static PromptTemplate compile(String variant, String text, Map<String, String> staticValues) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf(OPEN, position);
+            if (open == -1) {
+                literal.append(text, position, text.length());
+                break;
+            }
+            int close = text.indexOf(CLOSE, open);
+            if (close == -1) {
+                throw new IllegalArgumentException("Unterminated placeholder in prompt variant '" + variant + "'");
+            }
+
+            literal.append(text, position, open);
+            String name = text.substring(open + OPEN.length(), close).trim();
+
+            if (FILE_NAME.equals(name) || SOURCE_CODE.equals(name)) {
+                literals.add(literal.toString());
+                slots.add(name);
+                literal.setLength(0);
+            } else if (staticValues.containsKey(name)) {
+                literal.append(staticValues.get(name));
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown placeholder {{" + name + "}} in prompt variant '" + variant + "'");
+            }
+            position = close + CLOSE.length();
+        }
+        literals.add(literal.toString());
+        slots.add(null);
+
+        String[] literalArray = literals.toArray(String[]::new);
+        String[] slotArray = slots.toArray(String[]::new);
+        return new PromptTemplate(variant, variant + "@" + fingerprint(literalArray, slotArray), literalArray, slotArray);
+    }
+
+    public String render(String fileName, String sourceCode) {
+        String safeFileName = fileName != null ? fileName : "";
+        String safeSourceCode = sourceCode != null ? sourceCode : "";
+
+        int length = literalLength;
+        for (String slot : slots) {
+            if (slot != null) {
+                length += (slot.equals(FILE_NAME) ? safeFileName : safeSourceCode).length();
+            }
+        }
+
+        StringBuilder prompt = new StringBuilder(length);
+        for (int i = 0; i < literals.length; i++) {
+            prompt.append(literals[i]);
+            if (slots[i] != null) {
+                prompt.append(slots[i].equals(FILE_NAME) ? safeFileName : safeSourceCode);
+            }
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Identifies the exact static prompt text, e.g. {@code compact@9f2c41d07ab3}. Stamped on
+     * every analysis and meant to be part of any cache key built over analysis results.
+     */
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    private static String fingerprint(String[] literals, String[] slots) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (int i = 0; i < literals.length; i++) {
+                digest.update(literals[i].getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                if (slots[i] != null) {
+                    digest.update(slots[i].getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
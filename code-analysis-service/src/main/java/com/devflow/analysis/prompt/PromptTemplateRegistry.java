@@ -0,0 +1,155 @@
+package com.devflow.analysis.prompt;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Loads prompt variants from {@code analysis.prompts.location} and hands out templates
+ * precompiled per (variant, language, analysisTypes). Variants are plain text files
+ * ({@code <variant>.txt}, optionally overridden per language by
+ * {@code <variant>-<language>.txt}), so pointing the location at a {@code file:} directory
+ * and calling {@link #reload()} changes prompts without a redeploy.
+ */
+@Component
+@Slf4j
+public class PromptTemplateRegistry {
+
+    // Canonical analysis types and the focus line each contributes to the prompt
+    private static final Map<String, String> FOCUS_BY_TYPE = new LinkedHashMap<>();
+
+    static {
+        FOCUS_BY_TYPE.put("complexity", "Code complexity and readability");
+        FOCUS_BY_TYPE.put("quality", "Best practices adherence");
+        FOCUS_BY_TYPE.put("security", "Potential bugs and security issues");
+        FOCUS_BY_TYPE.put("performance", "Performance considerations");
+    }
+
+    private static final String MAINTAINABILITY_FOCUS = "Maintainability aspects";
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${analysis.prompts.location:classpath:prompts/}")
+    private String location;
+
+    @Value("${analysis.prompts.default-variant:default}")
+    private String defaultVariant;
+
+    @Value("${analysis.prompts.experiment.variant:}")
+    private String experimentVariant;
+
+    @Value("${analysis.prompts.experiment.percentage:0}")
+    private int experimentPercentage;
+
+    private final Map<String, String> rawTemplates = new ConcurrentHashMap<>();
+    private final Map<String, PromptTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    public PromptTemplateRegistry(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void reload() {
+        rawTemplates.clear();
+        compiledTemplates.clear();
+
+        // Fail fast on a broken default; the experiment variant is loaded lazily on first use
+        PromptTemplate template = select("java", "", 0L);
+        log.info("Prompt templates loaded from {} (default {}, experiment '{}' at {}%)",
+                location, template.getVersionId(), experimentVariant, experimentPercentage);
+    }
+
+    /**
+     * Picks the variant for an analysis and returns its compiled template. The experiment
+     * bucket is derived from the analysis id, so retries of the same analysis see the same
+     * prompt.
+     */
+    public PromptTemplate select(String language, String analysisTypes, Long analysisId) {
+        String variant = defaultVariant;
+        if (!experimentVariant.isBlank() && analysisId != null
+                && Math.floorMod(analysisId, 100L) < experimentPercentage) {
+            variant = experimentVariant;
+        }
+        return get(variant, language, analysisTypes);
+    }
+
+    public PromptTemplate get(String variant, String language, String analysisTypes) {
+        String normalizedLanguage = language != null ? language.toLowerCase(Locale.ROOT) : "txt";
+        String normalizedTypes = analysisTypes != null ? analysisTypes : "";
+        String key = variant + '|' + normalizedLanguage + '|' + normalizedTypes;
+
+        return compiledTemplates.computeIfAbsent(key, ignored -> PromptTemplate.compile(
+                variant,
+                rawTemplate(variant, normalizedLanguage),
+                Map.of("language", normalizedLanguage, "focus", focusList(normalizedTypes))));
+    }
+
+    /**
+     * Canonical, order-independent form of the requested analysis types, e.g.
+     * {@code [Security, complexity]} becomes {@code complexity,security}. Unknown types are
+     * dropped; an empty result means "all".
+     */
+    public static String normalizeAnalysisTypes(List<String> analysisTypes) {
+        if (analysisTypes == null) {
+            return "";
+        }
+        return analysisTypes.stream()
+                .filter(Objects::nonNull)
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(FOCUS_BY_TYPE::containsKey)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private String focusList(String analysisTypes) {
+        List<String> focus = analysisTypes.isEmpty()
+                ? List.copyOf(FOCUS_BY_TYPE.values())
+                : Arrays.stream(analysisTypes.split(",")).map(FOCUS_BY_TYPE::get).toList();
+
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < focus.size(); i++) {
+            list.append(i + 1).append(". ").append(focus.get(i)).append('\n');
+        }
+        list.append(focus.size() + 1).append(". ").append(MAINTAINABILITY_FOCUS);
+        return list.toString();
+    }
+
+    private String rawTemplate(String variant, String language) {
+        String languageKey = variant + "-" + language;
+        String languageTemplate = rawTemplates.computeIfAbsent(languageKey, key -> readTemplate(key, false));
+        if (!languageTemplate.isEmpty()) {
+            return languageTemplate;
+        }
+        return rawTemplates.computeIfAbsent(variant, key -> readTemplate(key, true));
+    }
+
+    private String readTemplate(String name, boolean required) {
+        Resource resource = resourceLoader.getResource(location + name + ".txt");
+        if (!resource.exists()) {
+            if (required) {
+                throw new IllegalStateException("Prompt template not found: " + location + name + ".txt");
+            }
+            return "";
+        }
+        try {
+            return resource.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read prompt template " + name, e);
+        }
+    }
+}
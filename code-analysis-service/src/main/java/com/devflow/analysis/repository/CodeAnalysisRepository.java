@@ -4,9 +4,11 @@ import com.devflow.analysis.entity.CodeAnalysis;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,6 +23,16 @@ public interface CodeAnalysisRepository extends JpaRepository<CodeAnalysis, Long
 
     List<CodeAnalysis> findByStatus(CodeAnalysis.AnalysisStatus status);
 
+    @Query("SELECT ca.id FROM CodeAnalysis ca WHERE ca.status = :status ORDER BY ca.createdAt")
+    List<Long> findIdsByStatus(@Param("status") CodeAnalysis.AnalysisStatus status);
+
+    // Moves a PENDING analysis to IN_PROGRESS; 1 for the one caller that claimed it, else 0
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CodeAnalysis ca SET ca.status = 'IN_PROGRESS', ca.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE ca.id = :id AND ca.status = 'PENDING'")
+    int claimPending(@Param("id") Long id);
+
     List<CodeAnalysis> findByFileType(String fileType);
 
     @Query("SELECT ca FROM CodeAnalysis ca WHERE ca.userId = :userId AND ca.status = :status")
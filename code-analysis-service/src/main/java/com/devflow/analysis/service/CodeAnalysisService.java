@@ -1,23 +1,43 @@
 package com.devflow.analysis.service;
 
+import com.devflow.analysis.config.CodeAnalysisConfig;
+import com.devflow.analysis.dto.AnalysisCompletedEvent;
 import com.devflow.analysis.dto.AnalysisResultDto;
 import com.devflow.analysis.dto.CodeAnalysisRequest;
 import com.devflow.analysis.dto.CodeAnalysisResponse;
 import com.devflow.analysis.entity.CodeAnalysis;
+import com.devflow.analysis.prompt.PromptTemplate;
+import com.devflow.analysis.prompt.PromptTemplateRegistry;
 import com.devflow.analysis.repository.CodeAnalysisRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
 
 @Service
 @RequiredArgsConstructor
@@ -26,8 +46,34 @@ public class CodeAnalysisService {
 
     private final CodeAnalysisRepository analysisRepository;
     private final OllamaService ollamaService;
+    private final PromptTemplateRegistry promptRegistry;
     private final RabbitTemplate rabbitTemplate;
     private final ObjectMapper objectMapper;
+    private final Scheduler analysisScheduler;
+
+    // Present only in the virtual-thread execution mode (see VirtualThreadConfig)
+    @Qualifier("analysisVirtualThreadExecutor")
+    private final ObjectProvider<AsyncTaskExecutor> virtualThreadExecutorProvider;
+
+    @Value("${analysis.reactive.max-in-flight:256}")
+    private int maxInFlight;
+
+    @Value("${analysis.recovery.resubmit-pending:true}")
+    private boolean resubmitPending;
+
+    private final Sinks.Many<Long> analysisQueue = Sinks.many().unicast().onBackpressureBuffer();
+    private Disposable pipeline;
+
+    private AsyncTaskExecutor virtualThreadExecutor;
+
+    @Value("${analysis.virtual-threads.ollama-permits:256}")
+    private int ollamaPermits;
+
+    @Value("${analysis.virtual-threads.db-permits:10}")
+    private int dbPermits;
+
+    private Semaphore ollamaSemaphore;
+    private Semaphore dbSemaphore;
 
     @Transactional
     public CodeAnalysisResponse submitAnalysis(CodeAnalysisRequest request) {
@@ -35,8 +81,10 @@ public class CodeAnalysisService {
         CodeAnalysis analysis = new CodeAnalysis();
         analysis.setUserId(request.getUserId());
         analysis.setFileName(request.getFileName());
+        analysis.setProjectName(request.getProjectName());
         analysis.setFileType(request.getFileType());
         analysis.setSourceCode(request.getSourceCode());
+        analysis.setAnalysisTypes(PromptTemplateRegistry.normalizeAnalysisTypes(request.getAnalysisTypes()));
         analysis.setStatus(CodeAnalysis.AnalysisStatus.PENDING);
 
         // Set default scores
@@ -46,79 +94,210 @@ public class CodeAnalysisService {
 
         CodeAnalysis savedAnalysis = analysisRepository.save(analysis);
 
-        // Start async analysis
-        processAnalysisAsync(savedAnalysis.getId());
+        // Hand off to the reactive pipeline once the record is visible to other connections
+        dispatchAnalysis(savedAnalysis.getId());
 
         return mapToResponse(savedAnalysis);
     }
 
-    @Async
-    public CompletableFuture<Void> processAnalysisAsync(Long analysisId) {
-        try {
-            log.info("Starting async analysis for ID: {}", analysisId);
+    /**
+     * Runs one analysis end to end without holding a thread while Ollama generates.
+     * JPA and RabbitMQ calls hop onto the bounded {@code analysisScheduler}; the
+     * generation itself only occupies a Netty event loop while bytes are in flight.
+     */
+    public Mono<Void> processAnalysis(Long analysisId) {
+        return Mono.fromCallable(() -> startAnalysis(analysisId))
+                .subscribeOn(analysisScheduler)
+                .flatMap(Mono::justOrEmpty)
+                .flatMap(analysis -> analyzeWithOllama(analysis)
+                        .publishOn(analysisScheduler)
+                        .map(result -> completeAnalysis(analysis, result))
+                        .switchIfEmpty(Mono.fromCallable(() -> completeAnalysis(analysis, null))
+                                .subscribeOn(analysisScheduler)))
+                .onErrorResume(e -> {
+                    log.error("Error processing analysis for ID: {}", analysisId, e);
+                    return Mono.fromRunnable(() -> failAnalysis(analysisId, e))
+                            .subscribeOn(analysisScheduler)
+                            .then(Mono.empty());
+                })
+                .then();
+    }
 
-            Optional<CodeAnalysis> optionalAnalysis = analysisRepository.findById(analysisId);
+    /**
+     * Blocking counterpart of {@link #processAnalysis(Long)} for the virtual-thread mode.
+     * Waiting here parks the virtual thread instead of a platform thread; the semaphores
+     * replace pool sizes as the bound on concurrent Ollama generations and DB work.
+     */
+    void processAnalysisOnVirtualThread(Long analysisId) {
+        try {
+            Optional<CodeAnalysis> optionalAnalysis = withPermit(dbSemaphore, () -> startAnalysis(analysisId));
             if (optionalAnalysis.isEmpty()) {
-                log.error("Analysis not found with ID: {}", analysisId);
-                return CompletableFuture.completedFuture(null);
+                return;
             }
 
             CodeAnalysis analysis = optionalAnalysis.get();
+            AnalysisResultDto result = withPermit(ollamaSemaphore, () -> analyzeWithOllama(analysis).block());
 
-            // Update status to IN_PROGRESS
-            analysis.setStatus(CodeAnalysis.AnalysisStatus.IN_PROGRESS);
-            analysisRepository.save(analysis);
+            withPermit(dbSemaphore, () -> completeAnalysis(analysis, result));
+        } catch (Exception e) {
+            log.error("Error processing analysis for ID: {}", analysisId, e);
+            try {
+                withPermit(dbSemaphore, () -> {
+                    failAnalysis(analysisId, e);
+                    return null;
+                });
+            } catch (Exception failure) {
+                log.error("Failed to mark analysis {} as failed", analysisId, failure);
+            }
+        }
+    }
 
-            // Send status update notification
-            sendStatusUpdate(analysis);
+    private Mono<AnalysisResultDto> analyzeWithOllama(CodeAnalysis analysis) {
+        PromptTemplate template = promptRegistry.select(
+                analysis.getFileType(), analysis.getAnalysisTypes(), analysis.getId());
+        // Saved with the result, so every stored analysis records the prompt that produced it
+        analysis.setPromptVersion(template.getVersionId());
 
-            // Perform analysis using Ollama
-            AnalysisResultDto result = ollamaService.analyzeCode(
-                    analysis.getSourceCode(),
-                    analysis.getFileType(),
-                    analysis.getFileName()
-            ).block(); // Block for async method
-
-            if (result != null) {
-                // Update analysis with results
-                analysis.setComplexityScore(result.getComplexityScore());
-                analysis.setQualityScore(result.getQualityScore());
-                analysis.setMaintainabilityScore(result.getMaintainabilityScore());
-                analysis.setIssues(result.getIssues());
-                analysis.setSuggestions(result.getSuggestions());
-                analysis.setAnalysisResult(result.getSummary());
-                analysis.setStatus(CodeAnalysis.AnalysisStatus.COMPLETED);
-
-                log.info("Analysis completed successfully for ID: {}", analysisId);
-            } else {
-                analysis.setStatus(CodeAnalysis.AnalysisStatus.FAILED);
-                analysis.setAnalysisResult("Analysis failed due to service error");
-                log.error("Analysis failed for ID: {}", analysisId);
-            }
+        return ollamaService.analyzeCode(template, analysis.getSourceCode(), analysis.getFileName());
+    }
 
-            analysisRepository.save(analysis);
+    private <T> T withPermit(Semaphore semaphore, Callable<T> action) throws Exception {
+        semaphore.acquire();
+        try {
+            return action.call();
+        } finally {
+            semaphore.release();
+        }
+    }
 
-            // Send completion notification
-            sendStatusUpdate(analysis);
+    @PostConstruct
+    void startPipeline() {
+        virtualThreadExecutor = virtualThreadExecutorProvider.getIfAvailable();
+        if (virtualThreadExecutor != null) {
+            ollamaSemaphore = new Semaphore(ollamaPermits, true);
+            dbSemaphore = new Semaphore(dbPermits, true);
+            log.info("Analysis running on virtual threads with {} Ollama and {} DB permits", ollamaPermits, dbPermits);
+            return;
+        }
 
-            // Send to report service for report generation
-            sendToReportService(analysis);
+        pipeline = analysisQueue.asFlux()
+                .flatMap(analysisId -> processAnalysis(analysisId)
+                        .onErrorResume(e -> {
+                            // Never let one broken analysis terminate the shared pipeline
+                            log.error("Unrecoverable error in analysis pipeline for ID: {}", analysisId, e);
+                            return Mono.empty();
+                        }), maxInFlight)
+                .subscribe();
+        log.info("Analysis pipeline started with up to {} generations in flight", maxInFlight);
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing analysis for ID: {}", analysisId, e);
+    /**
+     * Queued analyses live only in memory until they start, so those accepted before a
+     * restart are still PENDING and would never run. Queues them again once the
+     * application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void resubmitPendingAnalyses() {
+        if (!resubmitPending) {
+            return;
+        }
+        List<Long> pendingIds = analysisRepository.findIdsByStatus(CodeAnalysis.AnalysisStatus.PENDING);
+        if (pendingIds.isEmpty()) {
+            return;
+        }
+        log.info("Resubmitting {} pending analyses left from a previous run", pendingIds.size());
+        pendingIds.forEach(this::enqueueAnalysis);
+    }
 
-            // Update status to failed
-            Optional<CodeAnalysis> optionalAnalysis = analysisRepository.findById(analysisId);
-            if (optionalAnalysis.isPresent()) {
-                CodeAnalysis analysis = optionalAnalysis.get();
-                analysis.setStatus(CodeAnalysis.AnalysisStatus.FAILED);
-                analysis.setAnalysisResult("Analysis failed: " + e.getMessage());
-                analysisRepository.save(analysis);
-                sendStatusUpdate(analysis);
-            }
+    @PreDestroy
+    void stopPipeline() {
+        if (pipeline != null) {
+            pipeline.dispose();
+        }
+    }
+
+    private void dispatchAnalysis(Long analysisId) {
+        // The pipeline reads the row from another connection, so wait until it is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueAnalysis(analysisId);
+                }
+            });
+        } else {
+            enqueueAnalysis(analysisId);
+        }
+    }
+
+    private void enqueueAnalysis(Long analysisId) {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.execute(() -> processAnalysisOnVirtualThread(analysisId));
+            return;
+        }
+        analysisQueue.emitNext(analysisId, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    private Optional<CodeAnalysis> startAnalysis(Long analysisId) {
+        log.info("Starting analysis for ID: {}", analysisId);
+
+        // Update status to IN_PROGRESS, unless another path (a resubmission, another instance) got there first
+        if (analysisRepository.claimPending(analysisId) != 1) {
+            log.info("Analysis {} not found or already started, skipping", analysisId);
+            return Optional.empty();
         }
 
-        return CompletableFuture.completedFuture(null);
+        Optional<CodeAnalysis> optionalAnalysis = analysisRepository.findById(analysisId);
+        if (optionalAnalysis.isEmpty()) {
+            log.error("Analysis not found with ID: {}", analysisId);
+            return Optional.empty();
+        }
+
+        // Send status update notification
+        sendStatusUpdate(optionalAnalysis.get());
+
+        return optionalAnalysis;
+    }
+
+    private CodeAnalysis completeAnalysis(CodeAnalysis analysis, AnalysisResultDto result) {
+        if (result != null) {
+            // Update analysis with results
+            analysis.setComplexityScore(result.getComplexityScore());
+            analysis.setQualityScore(result.getQualityScore());
+            analysis.setMaintainabilityScore(result.getMaintainabilityScore());
+            analysis.setIssues(result.getIssues());
+            analysis.setSuggestions(result.getSuggestions());
+            analysis.setAnalysisResult(result.getSummary());
+            analysis.setStatus(CodeAnalysis.AnalysisStatus.COMPLETED);
+
+            log.info("Analysis completed successfully for ID: {}", analysis.getId());
+        } else {
+            analysis.setStatus(CodeAnalysis.AnalysisStatus.FAILED);
+            analysis.setAnalysisResult("Analysis failed due to service error");
+            log.error("Analysis failed for ID: {}", analysis.getId());
+        }
+
+        CodeAnalysis savedAnalysis = analysisRepository.save(analysis);
+
+        // Send completion notification
+        sendStatusUpdate(savedAnalysis);
+
+        // Hand the result to report-service, which creates the report from it
+        sendToReportService(savedAnalysis);
+
+        return savedAnalysis;
+    }
+
+    private void failAnalysis(Long analysisId, Throwable error) {
+        // Update status to failed
+        Optional<CodeAnalysis> optionalAnalysis = analysisRepository.findById(analysisId);
+        if (optionalAnalysis.isPresent()) {
+            CodeAnalysis analysis = optionalAnalysis.get();
+            analysis.setStatus(CodeAnalysis.AnalysisStatus.FAILED);
+            analysis.setAnalysisResult("Analysis failed: " + error.getMessage());
+            analysisRepository.save(analysis);
+            sendStatusUpdate(analysis);
+        }
     }
 
     public CodeAnalysisResponse getAnalysisById(Long id) {
@@ -184,18 +363,24 @@ public class CodeAnalysisService {
     private void sendToReportService(CodeAnalysis analysis) {
         try {
             if (analysis.getStatus() == CodeAnalysis.AnalysisStatus.COMPLETED) {
-                rabbitTemplate.convertAndSend("report.generation.exchange",
-                        "report.generate",
-                        mapToResponse(analysis));
-
-                log.debug("Analysis sent to report service for ID: {}", analysis.getId());
+                rabbitTemplate.convertAndSend(CodeAnalysisConfig.DEVFLOW_EXCHANGE,
+                        CodeAnalysisConfig.ANALYSIS_COMPLETED_ROUTING_KEY,
+                        AnalysisCompletedEvent.from(analysis),
+                        message -> {
+                            message.getMessageProperties().setType(AnalysisCompletedEvent.TYPE);
+                            // Lets report-service measure how long results wait in the queue
+                            message.getMessageProperties().setTimestamp(new Date());
+                            return message;
+                        });
+
+                log.debug("Analysis completion sent to report service for ID: {}", analysis.getId());
             }
         } catch (Exception e) {
             log.error("Failed to send analysis to report service for ID: {}", analysis.getId(), e);
         }
     }
 
-    private CodeAnalysisResponse mapToResponse(CodeAnalysis analysis) {
+    CodeAnalysisResponse mapToResponse(CodeAnalysis analysis) {
         CodeAnalysisResponse response = new CodeAnalysisResponse();
         response.setId(analysis.getId());
         response.setUserId(analysis.getUserId());
@@ -210,6 +395,7 @@ public class CodeAnalysisService {
         response.setCreatedAt(analysis.getCreatedAt());
         response.setCompletedAt(analysis.getCompletedAt());
         response.setAnalysisResult(analysis.getAnalysisResult());
+        response.setPromptVersion(analysis.getPromptVersion());
         return response;
     }
 }
\ No newline at end of file
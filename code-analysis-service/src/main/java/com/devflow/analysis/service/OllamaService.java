@@ -3,13 +3,17 @@ package com.devflow.analysis.service;
 import com.devflow.analysis.dto.AnalysisResultDto;
 import com.devflow.analysis.dto.OllamaRequest;
 import com.devflow.analysis.dto.OllamaResponse;
+import com.devflow.analysis.prompt.PromptTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -28,13 +32,19 @@ public class OllamaService {
     @Value("${ollama.model:codellama:7b}")
     private String defaultModel;
 
+    @Value("${ollama.timeout:300000}")
+    private long timeoutMillis;
+
+    @Value("${ollama.max-retries:3}")
+    private int maxRetries;
+
     public OllamaService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
         this.webClient = webClientBuilder.build();
         this.objectMapper = objectMapper;
     }
 
-    public Mono<AnalysisResultDto> analyzeCode(String sourceCode, String fileType, String fileName) {
-        String prompt = buildAnalysisPrompt(sourceCode, fileType, fileName);
+    public Mono<AnalysisResultDto> analyzeCode(PromptTemplate template, String sourceCode, String fileName) {
+        String prompt = template.render(fileName, sourceCode);
 
         OllamaRequest request = new OllamaRequest();
         request.setModel(defaultModel);
@@ -53,47 +63,20 @@ public class OllamaService {
                 .bodyValue(request)
                 .retrieve()
                 .bodyToMono(OllamaResponse.class)
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .doOnNext(response -> log.debug("Prompt {} evaluated {} tokens in {} ms",
+                        template.getVersionId(), response.getPrompt_eval_count(),
+                        response.getPrompt_eval_duration() != null ? response.getPrompt_eval_duration() / 1_000_000 : null))
+                // Only failures to reach Ollama are retried; a request it received may be generating
+                .retryWhen(Retry.backoff(maxRetries, Duration.ofSeconds(1))
+                        .filter(WebClientRequestException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
                 .map(this::parseAnalysisResult)
-                .doOnError(error -> log.error("Error calling Ollama API: {}", error.getMessage()))
-                .onErrorReturn(createErrorResult());
-    }
-
-    private String buildAnalysisPrompt(String sourceCode, String fileType, String fileName) {
-        return String.format("""
-            Analyze the following %s code from file '%s' and provide a comprehensive code quality assessment.
-            
-            Please provide your analysis in the following structured format:
-            
-            COMPLEXITY_SCORE: [score from 1-100, where 100 is least complex]
-            QUALITY_SCORE: [score from 1-100, where 100 is highest quality]
-            MAINTAINABILITY_SCORE: [score from 1-100, where 100 is most maintainable]
-            
-            ISSUES:
-            - [List specific issues found in the code]
-            - [Each issue on a new line with dash prefix]
-            
-            SUGGESTIONS:
-            - [List specific improvement suggestions]
-            - [Each suggestion on a new line with dash prefix]
-            
-            SUMMARY:
-            [Provide a brief summary of the overall code quality and main recommendations]
-            
-            Code to analyze:
-            ```%s
-            %s
-            ```
-            
-            Focus on:
-            1. Code complexity and readability
-            2. Best practices adherence
-            3. Potential bugs and security issues
-            4. Performance considerations
-            5. Maintainability aspects
-            """, fileType, fileName, fileType, sourceCode);
+                // Propagated, so the analysis is stored as FAILED rather than with placeholder results
+                .doOnError(error -> log.error("Error calling Ollama API: {}", error.getMessage()));
     }
 
-    private AnalysisResultDto parseAnalysisResult(OllamaResponse response) {
+    AnalysisResultDto parseAnalysisResult(OllamaResponse response) {
         try {
             String analysisText = response.getResponse();
 
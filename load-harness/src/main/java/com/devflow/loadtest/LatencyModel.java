@@ -0,0 +1,70 @@
+package com.devflow.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated generation time: a prompt-evaluation latency drawn from a distribution plus
+ * the time needed to emit the generated tokens at a fixed token rate.
+ *
+ * <ul>
+ *   <li>{@code fixed} - always {@code latency-ms}</li>
+ *   <li>{@code uniform} - between {@code latency-min-ms} and {@code latency-max-ms}</li>
+ *   <li>{@code lognormal} - median {@code latency-ms}, shape {@code latency-sigma}</li>
+ * </ul>
+ */
+public class LatencyModel {
+
+    private final String distribution;
+    private final long latencyMillis;
+    private final long minMillis;
+    private final long maxMillis;
+    private final double sigma;
+    private final int tokensPerResponse;
+    private final double tokensPerSecond;
+
+    public LatencyModel(String distribution, long latencyMillis, long minMillis, long maxMillis,
+                        double sigma, int tokensPerResponse, double tokensPerSecond) {
+        this.distribution = distribution;
+        this.latencyMillis = latencyMillis;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.sigma = sigma;
+        this.tokensPerResponse = tokensPerResponse;
+        this.tokensPerSecond = tokensPerSecond;
+    }
+
+    public static LatencyModel from(HarnessOptions options) {
+        return new LatencyModel(
+                options.getString("latency", "lognormal"),
+                options.getLong("latency-ms", 200),
+                options.getLong("latency-min-ms", 50),
+                options.getLong("latency-max-ms", 500),
+                options.getDouble("latency-sigma", 0.5),
+                options.getInt("tokens", 400),
+                options.getDouble("token-rate", 200));
+    }
+
+    public long samplePromptEvalMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (distribution) {
+            case "fixed" -> latencyMillis;
+            case "uniform" -> random.nextLong(minMillis, maxMillis + 1);
+            case "lognormal" -> Math.round(latencyMillis * Math.exp(sigma * random.nextGaussian()));
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + distribution);
+        };
+    }
+
+    public long generationMillis() {
+        return tokensPerSecond > 0 ? Math.round(tokensPerResponse * 1000.0 / tokensPerSecond) : 0;
+    }
+
+    public int getTokensPerResponse() {
+        return tokensPerResponse;
+    }
+
+    @Override
+    public String toString() {
+        return distribution + " prompt eval (" + latencyMillis + " ms), "
+                + tokensPerResponse + " tokens at " + tokensPerSecond + " tok/s";
+    }
+}
@@ -0,0 +1,230 @@
+package com.devflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires an open-loop mix of JSON submits and multipart uploads at
+ * {@code CodeAnalysisController}, then polls each analysis until it completes or fails.
+ */
+public class LoadDriver {
+
+    private static final String BOUNDARY = "devflow-load-harness-boundary";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String targetUrl;
+    private final int totalRequests;
+    private final double requestsPerSecond;
+    private final double uploadRatio;
+    private final long pollIntervalMillis;
+    private final long completionTimeoutSeconds;
+    private final StubOllamaServer stub;
+
+    private final LatencyRecorder submitLatency = new LatencyRecorder("submit");
+    private final LatencyRecorder queueWait = new LatencyRecorder("queueWait");
+    private final LatencyRecorder completionLatency = new LatencyRecorder("completion");
+    private final AtomicInteger submitErrors = new AtomicInteger();
+    private final AtomicInteger failedAnalyses = new AtomicInteger();
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    private record Pending(String harnessId, long submittedAt, AtomicBoolean polling) {
+    }
+
+    /**
+     * @param stub in-process stub used to measure queue wait, or {@code null} when the
+     *             service talks to a stub or Ollama running elsewhere
+     */
+    public LoadDriver(HarnessOptions options, StubOllamaServer stub) {
+        this.targetUrl = options.getString("target", "http://localhost:8082/api/v1/api/v1/analysis");
+        this.totalRequests = options.getInt("requests", 200);
+        this.requestsPerSecond = options.getDouble("rate", 20);
+        this.uploadRatio = options.getDouble("upload-ratio", 0.3);
+        this.pollIntervalMillis = options.getLong("poll-interval-ms", 250);
+        this.completionTimeoutSeconds = options.getLong("completion-timeout-s", 600);
+        this.stub = stub;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        AtomicInteger submitted = new AtomicInteger();
+        List<CompletableFuture<Void>> submissions = new ArrayList<>();
+
+        System.out.printf("Driving %d requests at %.1f req/s (%.0f%% uploads) against %s%n",
+                totalRequests, requestsPerSecond, uploadRatio * 100, targetUrl);
+
+        long start = System.nanoTime();
+        long intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+
+        try {
+            // Open-loop arrivals: the schedule does not slow down when the service does
+            for (int i = 0; i < totalRequests; i++) {
+                CompletableFuture<Void> submission = new CompletableFuture<>();
+                submissions.add(submission);
+                int sequence = i;
+                scheduler.schedule(() -> submit(sequence).whenComplete((ignored, error) -> {
+                    submitted.incrementAndGet();
+                    submission.complete(null);
+                }), i * intervalNanos, TimeUnit.NANOSECONDS);
+            }
+
+            scheduler.scheduleWithFixedDelay(this::pollPending, pollIntervalMillis, pollIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+
+            CompletableFuture.allOf(submissions.toArray(CompletableFuture[]::new)).join();
+            long submitEnd = System.nanoTime();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(completionTimeoutSeconds);
+            while (!pending.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(pollIntervalMillis);
+            }
+            long end = System.nanoTime();
+
+            return new LoadReport(
+                    submitted.get(),
+                    uploads.get(),
+                    submitErrors.get(),
+                    completionLatency.getCount(),
+                    failedAnalyses.get(),
+                    pending.size(),
+                    (submitEnd - start) / 1e9,
+                    (end - start) / 1e9,
+                    submitLatency,
+                    stub != null ? queueWait : null,
+                    completionLatency,
+                    stub);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<Void> submit(int sequence) {
+        String harnessId = UUID.randomUUID().toString();
+        SampleSources.Sample sample = SampleSources.next(harnessId, sequence);
+        String userId = "load-user-" + (sequence % 50);
+
+        HttpRequest request = ThreadLocalRandom.current().nextDouble() < uploadRatio
+                ? uploadRequest(sample, userId)
+                : submitRequest(sample, userId);
+
+        long submittedAt = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenAccept(response -> {
+                    submitLatency.recordNanos(System.nanoTime() - submittedAt);
+                    if (response.statusCode() != 201) {
+                        submitErrors.incrementAndGet();
+                        return;
+                    }
+                    Long id = readField(response.body(), "id").asLong();
+                    pending.put(id, new Pending(harnessId, submittedAt, new AtomicBoolean()));
+                })
+                .exceptionally(error -> {
+                    submitErrors.incrementAndGet();
+                    return null;
+                });
+    }
+
+    private HttpRequest submitRequest(SampleSources.Sample sample, String userId) {
+        Map<String, Object> body = Map.of(
+                "fileName", sample.fileName(),
+                "fileType", sample.fileType(),
+                "sourceCode", sample.sourceCode(),
+                "userId", userId,
+                "analysisTypes", List.of("complexity", "quality"));
+        try {
+            return HttpRequest.newBuilder(URI.create(targetUrl + "/submit"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialise submit request", e);
+        }
+    }
+
+    private HttpRequest uploadRequest(SampleSources.Sample sample, String userId) {
+        uploads.incrementAndGet();
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"userId\"\r\n\r\n"
+                + userId + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + sample.fileName() + "\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + sample.sourceCode() + "\r\n"
+                + "--" + BOUNDARY + "--\r\n";
+
+        return HttpRequest.newBuilder(URI.create(targetUrl + "/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private void pollPending() {
+        pending.forEach((id, entry) -> {
+            // Skip analyses whose previous poll is still outstanding
+            if (!entry.polling().compareAndSet(false, true)) {
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(targetUrl + "/" + id)).GET().build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(response -> {
+                        if (response.statusCode() == 200) {
+                            onStatus(id, entry, readField(response.body(), "status").asText());
+                        }
+                    })
+                    .whenComplete((ignored, error) -> entry.polling().set(false));
+        });
+    }
+
+    private void onStatus(Long id, Pending entry, String status) {
+        if (!"COMPLETED".equals(status) && !"FAILED".equals(status)) {
+            return;
+        }
+        if (pending.remove(id) == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if ("FAILED".equals(status)) {
+            failedAnalyses.incrementAndGet();
+        }
+        completionLatency.recordNanos(now - entry.submittedAt());
+
+        if (stub != null) {
+            Long arrival = stub.getArrivalNanos(entry.harnessId());
+            if (arrival != null) {
+                queueWait.recordNanos(arrival - entry.submittedAt());
+            }
+        }
+    }
+
+    private JsonNode readField(String json, String field) {
+        try {
+            return objectMapper.readTree(json).path(field);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected response body: " + json, e);
+        }
+    }
+}
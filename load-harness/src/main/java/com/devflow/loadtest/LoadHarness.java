@@ -0,0 +1,69 @@
+package com.devflow.loadtest;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Entry point for the analysis pipeline load harness.
+ *
+ * <pre>
+ * # stub only: point code-analysis-service at it with OLLAMA_BASE_URL=http://localhost:11434
+ * mvn -q exec:java -Dexec.args="--mode=stub --latency=lognormal --latency-ms=300 --token-rate=50"
+ *
+ * # stub plus driver in one JVM (queue wait is measured from the stub side)
+ * mvn -q exec:java -Dexec.args="--mode=run --requests=500 --rate=50 --report=target/load-report.json"
+ *
+ * # driver only, against a service using a stub or Ollama started elsewhere
+ * mvn -q exec:java -Dexec.args="--mode=drive --target=http://localhost:8082/api/v1/api/v1/analysis"
+ * </pre>
+ *
+ * CI thresholds ({@code --max-p95-completion-ms}, {@code --max-p99-completion-ms},
+ * {@code --min-throughput}, {@code --max-error-rate}) make the process exit with status 1
+ * when violated.
+ */
+public class LoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = HarnessOptions.parse(args);
+        String mode = options.getString("mode", "run");
+
+        switch (mode) {
+            case "stub" -> runStub(options);
+            case "drive" -> System.exit(drive(options, null));
+            case "run" -> {
+                try (StubOllamaServer stub = StubOllamaServer.from(options)) {
+                    stub.start();
+                    System.exit(drive(options, stub));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode + " (expected stub, drive or run)");
+        }
+    }
+
+    private static void runStub(HarnessOptions options) throws Exception {
+        StubOllamaServer stub = StubOllamaServer.from(options);
+        CountDownLatch shutdown = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stub.close();
+            shutdown.countDown();
+        }));
+        stub.start();
+        shutdown.await();
+    }
+
+    private static int drive(HarnessOptions options, StubOllamaServer stub) throws Exception {
+        LoadReport report = new LoadDriver(options, stub).run();
+        System.out.println(report.toPrettyString());
+
+        if (options.has("report")) {
+            Path path = Path.of(options.getString("report", "load-report.json"));
+            report.write(path);
+            System.out.println("Report written to " + path.toAbsolutePath());
+        }
+
+        List<String> violations = report.checkThresholds(options);
+        violations.forEach(violation -> System.err.println("THRESHOLD VIOLATED: " + violation));
+        return violations.isEmpty() ? 0 : 1;
+    }
+}
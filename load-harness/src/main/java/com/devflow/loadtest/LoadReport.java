@@ -0,0 +1,105 @@
+package com.devflow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one load run: throughput, latency percentiles and the stub's view of how
+ * many generations the service kept in flight at once (its effective concurrency ceiling).
+ */
+public class LoadReport {
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final LatencyRecorder completionLatency;
+    private final int submitted;
+    private final int submitErrors;
+    private final int incomplete;
+    private final double throughput;
+
+    public LoadReport(int submitted, int uploads, int submitErrors, int completed, int failed, int incomplete,
+                      double submitSeconds, double totalSeconds, LatencyRecorder submitLatency,
+                      LatencyRecorder queueWait, LatencyRecorder completionLatency, StubOllamaServer stub) {
+        this.completionLatency = completionLatency;
+        this.submitted = submitted;
+        this.submitErrors = submitErrors;
+        this.incomplete = incomplete;
+        this.throughput = totalSeconds > 0 ? completed / totalSeconds : 0.0;
+
+        values.put("submitted", submitted);
+        values.put("uploads", uploads);
+        values.put("submitErrors", submitErrors);
+        values.put("completed", completed);
+        values.put("failed", failed);
+        values.put("incomplete", incomplete);
+        values.put("submitSeconds", submitSeconds);
+        values.put("totalSeconds", totalSeconds);
+        values.put("submitThroughputPerSecond", submitSeconds > 0 ? submitted / submitSeconds : 0.0);
+        values.put("completionThroughputPerSecond", throughput);
+        values.put("submitLatency", submitLatency.summary());
+        if (queueWait != null) {
+            values.put("queueWait", queueWait.summary());
+        }
+        values.put("completionLatency", completionLatency.summary());
+        if (stub != null) {
+            values.put("stubGenerateRequests", stub.getGenerateRequests());
+            values.put("stubInjectedFailures", stub.getInjectedFailures());
+            values.put("stubPeakConcurrentGenerations", stub.getPeakInFlight());
+        }
+    }
+
+    /** Checks the CI thresholds that were supplied and returns the violated ones. */
+    public List<String> checkThresholds(HarnessOptions options) {
+        List<String> violations = new ArrayList<>();
+
+        if (options.has("max-p95-completion-ms")) {
+            double limit = options.getDouble("max-p95-completion-ms", 0);
+            double actual = completionLatency.percentileMillis(0.95);
+            if (actual > limit) {
+                violations.add(String.format("p95 completion %.1f ms > %.1f ms", actual, limit));
+            }
+        }
+        if (options.has("max-p99-completion-ms")) {
+            double limit = options.getDouble("max-p99-completion-ms", 0);
+            double actual = completionLatency.percentileMillis(0.99);
+            if (actual > limit) {
+                violations.add(String.format("p99 completion %.1f ms > %.1f ms", actual, limit));
+            }
+        }
+        if (options.has("min-throughput")) {
+            double limit = options.getDouble("min-throughput", 0);
+            if (throughput < limit) {
+                violations.add(String.format("throughput %.2f/s < %.2f/s", throughput, limit));
+            }
+        }
+        if (options.has("max-error-rate")) {
+            double limit = options.getDouble("max-error-rate", 0);
+            double actual = submitted > 0 ? (double) (submitErrors + incomplete) / submitted : 0.0;
+            if (actual > limit) {
+                violations.add(String.format("error rate %.3f > %.3f", actual, limit));
+            }
+        }
+        return violations;
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), values);
+    }
+
+    public String toPrettyString() {
+        try {
+            return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(values);
+        } catch (IOException e) {
+            return values.toString();
+        }
+    }
+}
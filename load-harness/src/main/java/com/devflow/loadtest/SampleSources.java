@@ -0,0 +1,75 @@
+package com.devflow.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Synthetic source files in a few languages and sizes. Each generated file carries a
+ * {@code harness-id} comment that survives into the prompt, which lets the stub Ollama
+ * attribute generate requests to submissions whatever the prompt template looks like.
+ */
+public final class SampleSources {
+
+    public record Sample(String fileName, String fileType, String sourceCode) {
+    }
+
+    private record Template(String extension, String comment, String header, String unit, String footer) {
+    }
+
+    private static final List<Template> TEMPLATES = List.of(
+            new Template("java", "//", "public class OrderService%d {\n", """
+                        public int process%d(java.util.List<Integer> items) {
+                            int total = 0;
+                            for (int item : items) {
+                                if (item > 42) {
+                                    total += item * 2;
+                                } else {
+                                    total += item;
+                                }
+                            }
+                            return total;
+                        }
+                    """, "}\n"),
+            new Template("py", "#", "class OrderService%d:\n", """
+                        def process%d(self, items):
+                            total = 0
+                            for item in items:
+                                if item > 42:
+                                    total += item * 2
+                                else:
+                                    total += item
+                            return total
+                    """, ""),
+            new Template("js", "//", "class OrderService%d {\n", """
+                      process%d(items) {
+                        let total = 0;
+                        for (const item of items) {
+                          total += item > 42 ? item * 2 : item;
+                        }
+                        return total;
+                      }
+                    """, "}\n"));
+
+    // Small files dominate real traffic; the occasional large one exercises prompt size
+    private static final int[] UNIT_COUNTS = {2, 2, 2, 5, 5, 10, 40};
+
+    private SampleSources() {
+    }
+
+    public static Sample next(String harnessId, int sequence) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Template template = TEMPLATES.get(random.nextInt(TEMPLATES.size()));
+        int units = UNIT_COUNTS[random.nextInt(UNIT_COUNTS.length)];
+
+        StringBuilder source = new StringBuilder();
+        source.append(template.comment()).append(" harness-id: ").append(harnessId).append('\n');
+        source.append(String.format(template.header(), sequence));
+        for (int i = 0; i < units; i++) {
+            source.append(String.format(template.unit(), i));
+        }
+        source.append(template.footer());
+
+        return new Sample("OrderService" + sequence + "." + template.extension(),
+                template.extension(), source.toString());
+    }
+}
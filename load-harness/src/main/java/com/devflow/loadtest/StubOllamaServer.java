@@ -0,0 +1,199 @@
+package com.devflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded stand-in for the Ollama HTTP API. Serves {@code /api/generate} (non-streaming)
+ * and {@code /api/tags}, sleeps according to a {@link LatencyModel} and injects failures,
+ * so the analysis pipeline can be load tested on a machine without a GPU.
+ */
+public class StubOllamaServer implements AutoCloseable {
+
+    private static final Pattern HARNESS_ID = Pattern.compile("harness-id: ([0-9a-f-]{36})");
+
+    private static final String ANALYSIS_TEXT = """
+            COMPLEXITY_SCORE: %d
+            QUALITY_SCORE: %d
+            MAINTAINABILITY_SCORE: %d
+
+            ISSUES:
+            - Method processOrder on line 12 is too long and mixes validation with persistence
+            - Possible null dereference of customer on line 27
+            - Magic number 42 used without explanation
+
+            SUGGESTIONS:
+            - Extract validation into a dedicated method
+            - Guard customer with Optional or an explicit null check
+            - Replace magic numbers with named constants
+
+            SUMMARY:
+            The code is readable overall but several methods carry too many responsibilities.
+            """;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyModel latencyModel;
+    private final String model;
+    private final double failureRate;
+    private final double malformedRate;
+
+    private final Map<String, Long> arrivalNanos = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong generateRequests = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+
+    public StubOllamaServer(int port, LatencyModel latencyModel, String model,
+                            double failureRate, double malformedRate) throws IOException {
+        this.latencyModel = latencyModel;
+        this.model = model;
+        this.failureRate = failureRate;
+        this.malformedRate = malformedRate;
+
+        // One thread per in-flight generation keeps the stub from becoming the bottleneck
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/api/generate", this::handleGenerate);
+        server.createContext("/api/tags", this::handleTags);
+    }
+
+    public static StubOllamaServer from(HarnessOptions options) throws IOException {
+        return new StubOllamaServer(
+                options.getInt("stub-port", 11434),
+                LatencyModel.from(options),
+                options.getString("stub-model", "codellama:7b"),
+                options.getDouble("failure-rate", 0.0),
+                options.getDouble("malformed-rate", 0.0));
+    }
+
+    public void start() {
+        server.start();
+        System.out.printf("Stub Ollama listening on port %d (%s, failure rate %.2f, malformed rate %.2f)%n",
+                getPort(), latencyModel, failureRate, malformedRate);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Time the first generate request for the given harness id reached the stub. */
+    public Long getArrivalNanos(String harnessId) {
+        return arrivalNanos.get(harnessId);
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long getGenerateRequests() {
+        return generateRequests.get();
+    }
+
+    public long getInjectedFailures() {
+        return injectedFailures.get();
+    }
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        long arrival = System.nanoTime();
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        generateRequests.incrementAndGet();
+
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+                return;
+            }
+
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            recordArrival(request.path("prompt").asText(), arrival);
+
+            long promptEvalMillis = latencyModel.samplePromptEvalMillis();
+            long evalMillis = latencyModel.generationMillis();
+            Thread.sleep(promptEvalMillis + evalMillis);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < failureRate) {
+                injectedFailures.incrementAndGet();
+                respond(exchange, 500, "{\"error\":\"injected failure\"}");
+                return;
+            }
+
+            String text = random.nextDouble() < malformedRate
+                    ? "I could not analyse this code."
+                    : String.format(ANALYSIS_TEXT, random.nextInt(40, 95), random.nextInt(40, 95), random.nextInt(40, 95));
+
+            Map<String, Object> response = Map.of(
+                    "model", request.path("model").asText(model),
+                    "created_at", Instant.now().toString(),
+                    "response", text,
+                    "done", true,
+                    "total_duration", (promptEvalMillis + evalMillis) * 1_000_000,
+                    "prompt_eval_count", request.path("prompt").asText().length() / 4,
+                    "prompt_eval_duration", promptEvalMillis * 1_000_000,
+                    "eval_count", latencyModel.getTokensPerResponse(),
+                    "eval_duration", evalMillis * 1_000_000);
+            respond(exchange, 200, objectMapper.writeValueAsString(response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void handleTags(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, Object> tags = Map.of("models", List.of(Map.of(
+                    "name", model,
+                    "modified_at", Instant.now().toString(),
+                    "size", 3_825_819_519L)));
+            respond(exchange, 200, objectMapper.writeValueAsString(tags));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void recordArrival(String prompt, long arrival) {
+        Matcher matcher = HARNESS_ID.matcher(prompt);
+        if (matcher.find()) {
+            arrivalNanos.putIfAbsent(matcher.group(1), arrival);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
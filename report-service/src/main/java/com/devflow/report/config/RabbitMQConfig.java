@@ -1,12 +1,21 @@
 package com.devflow.report.config;
 
+import com.devflow.report.messaging.AnalysisResultDeadLetterer;
+import com.devflow.report.messaging.CompactMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,6 +26,34 @@ public class RabbitMQConfig {
     public static final String ANALYSIS_ERRORS_QUEUE = "analysis.errors";
     public static final String REPORT_NOTIFICATIONS_QUEUE = "report.notifications";
     public static final String DEVFLOW_EXCHANGE = "devflow.exchange";
+    public static final String ANALYSIS_RESULTS_DLQ = "analysis.results.dlq";
+    public static final String DEAD_LETTER_EXCHANGE = "devflow.dlx";
+    public static final String ANALYSIS_RESULTS_CONTAINER_FACTORY = "analysisResultsContainerFactory";
+    public static final String REPORT_CACHE_EXCHANGE = "report.cache.invalidation";
+
+    @Value("${devflow.report.ingest.batch-size:50}")
+    private int ingestBatchSize;
+
+    @Value("${devflow.report.ingest.receive-timeout-ms:20}")
+    private long ingestReceiveTimeoutMs;
+
+    @Value("${devflow.report.ingest.prefetch:250}")
+    private int ingestPrefetch;
+
+    @Value("${devflow.report.ingest.concurrency:2}")
+    private int ingestConcurrency;
+
+    @Value("${devflow.report.ingest.max-concurrency:8}")
+    private int ingestMaxConcurrency;
+
+    @Value("${devflow.report.ingest.max-attempts:3}")
+    private int ingestMaxAttempts;
+
+    @Value("${devflow.report.messaging.encoding:json}")
+    private String messagingEncoding;
+
+    @Value("${devflow.report.messaging.compress-above-bytes:1024}")
+    private int compressAboveBytes;
 
     @Bean
     public TopicExchange devflowExchange() {
@@ -59,15 +96,91 @@ public class RabbitMQConfig {
                 .with("report.generated");
     }
 
+    // Results that cannot be applied are republished here, with the exception in their headers,
+    // rather than dead-lettered by the broker: analysis.results already exists without
+    // x-dead-letter arguments, and redeclaring it with them would fail
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue analysisResultsDeadLetterQueue() {
+        return new Queue(ANALYSIS_RESULTS_DLQ, true);
+    }
+
+    @Bean
+    public Binding analysisResultsDeadLetterBinding() {
+        return BindingBuilder.bind(analysisResultsDeadLetterQueue())
+                .to(deadLetterExchange())
+                .with(ANALYSIS_RESULTS_QUEUE);
+    }
+
+    // Every replica binds its own server-named, auto-deleted queue, so each gets every invalidation
+    @Bean
+    public FanoutExchange reportCacheExchange() {
+        return new FanoutExchange(REPORT_CACHE_EXCHANGE);
+    }
+
+    @Bean
+    public AnonymousQueue reportCacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding reportCacheInvalidationBinding() {
+        return BindingBuilder.bind(reportCacheInvalidationQueue()).to(reportCacheExchange());
+    }
+
+    @Bean
+    public AnalysisResultDeadLetterer analysisResultDeadLetterer(RabbitTemplate rabbitTemplate) {
+        return new AnalysisResultDeadLetterer(rabbitTemplate, DEAD_LETTER_EXCHANGE, ANALYSIS_RESULTS_QUEUE);
+    }
+
+    /**
+     * Delivers analysis results in batches of up to {@code devflow.report.ingest.batch-size}; a
+     * partial batch goes out once no message has arrived for {@code receive-timeout-ms}. A batch
+     * that throws is retried with backoff and then dead-lettered as a whole; the listener
+     * dead-letters single bad messages itself so they do not take the rest of their batch with them.
+     */
+    @Bean(ANALYSIS_RESULTS_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory analysisResultsContainerFactory(
+            ConnectionFactory connectionFactory, AnalysisResultDeadLetterer deadLetterer) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(ingestBatchSize);
+        factory.setReceiveTimeout(ingestReceiveTimeoutMs);
+        // Each consumer needs at least a full batch in flight or batches are cut short by the timeout
+        factory.setPrefetchCount(Math.max(ingestPrefetch, ingestBatchSize));
+        factory.setConcurrentConsumers(ingestConcurrency);
+        factory.setMaxConcurrentConsumers(Math.max(ingestConcurrency, ingestMaxConcurrency));
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(ingestMaxAttempts)
+                .backOffOptions(1000, 2.0, 10000)
+                .recoverer(deadLetterer)
+                .build());
+        return factory;
+    }
+
+    // Boot's mapper, so message bodies handle java.time the same way the REST APIs do.
+    // Incoming messages are read in either encoding, whichever this publishes, and a type id
+    // header may only name this service's DTOs.
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public CompactMessageConverter messageConverter(ObjectMapper objectMapper) {
+        return new CompactMessageConverter(objectMapper,
+                CompactMessageConverter.Encoding.valueOf(messagingEncoding.trim().toUpperCase()), compressAboveBytes,
+                "com.devflow.report.dto");
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         CompactMessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(messageConverter());
+        template.setMessageConverter(messageConverter);
         return template;
     }
 }
\ No newline at end of file
@@ -1,28 +1,47 @@
 package com.devflow.report.controller;
 
 import com.devflow.report.dto.AnalysisResultDto;
+import com.devflow.report.dto.IssueListItemDto;
 import com.devflow.report.dto.ReportGenerationRequest;
+import com.devflow.report.dto.ReportListItemDto;
+import com.devflow.report.dto.ReportSearchRequest;
+import com.devflow.report.dto.ReportSearchResult;
 import com.devflow.report.dto.ReportSummaryDto;
 import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.IssueSeverity;
+import com.devflow.report.model.RenderJob;
 import com.devflow.report.model.ReportFormat;
+import com.devflow.report.service.AnalyticsService;
+import com.devflow.report.service.ReportDownloadService;
+import com.devflow.report.service.ReportExportService;
+import com.devflow.report.service.ReportRenderQueue;
+import com.devflow.report.service.ReportSearchService;
 import com.devflow.report.service.ReportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.File;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -34,6 +53,21 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportRenderQueue renderQueue;
+
+    @Autowired
+    private ReportDownloadService downloadService;
+
+    @Autowired
+    private ReportExportService exportService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ReportSearchService searchService;
+
     @PostMapping("/create")
     public ResponseEntity<AnalysisReport> createReport(
             @RequestParam String userId,
@@ -62,7 +96,7 @@ public class ReportController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Page<AnalysisReport>> getUserReports(
+    public ResponseEntity<Page<ReportListItemDto>> getUserReports(
             @PathVariable String userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -70,21 +104,57 @@ public class ReportController {
         logger.info("Retrieving reports for user: {}, page: {}, size: {}", userId, page, size);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<AnalysisReport> reports = reportService.getUserReports(userId, pageable);
+        Page<ReportListItemDto> reports = reportService.getUserReports(userId, pageable);
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/project/{userId}/{projectName}")
-    public ResponseEntity<List<AnalysisReport>> getProjectReports(
+    public ResponseEntity<List<ReportListItemDto>> getProjectReports(
             @PathVariable String userId,
             @PathVariable String projectName) {
 
         logger.info("Retrieving reports for user: {}, project: {}", userId, projectName);
 
-        List<AnalysisReport> reports = reportService.getProjectReports(userId, projectName);
+        List<ReportListItemDto> reports = reportService.getProjectReports(userId, projectName);
         return ResponseEntity.ok(reports);
     }
 
+    @GetMapping("/search/{userId}")
+    public ResponseEntity<ReportSearchResult> searchReports(@PathVariable String userId,
+                                                            @ModelAttribute ReportSearchRequest request) {
+        logger.info("Searching reports for user: {}", userId);
+
+        try {
+            return ResponseEntity.ok(searchService.search(userId, request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected report search: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Failed to search reports", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/issues/{userId}")
+    public ResponseEntity<List<IssueListItemDto>> getUserIssues(
+            @PathVariable String userId,
+            @RequestParam(required = false) List<IssueSeverity> severity,
+            @RequestParam(required = false) String projectName,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        logger.info("Retrieving {} issues for user: {}", severity != null ? severity : "all", userId);
+
+        List<IssueSeverity> severities = severity != null && !severity.isEmpty()
+                ? severity : Arrays.asList(IssueSeverity.values());
+        try {
+            return ResponseEntity.ok(reportService.findIssues(userId, severities, projectName,
+                    Math.max(1, Math.min(limit, 1000))));
+        } catch (Exception e) {
+            logger.error("Failed to retrieve issues", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PutMapping("/{reportId}/results")
     public ResponseEntity<AnalysisReport> updateReportResults(
             @PathVariable String reportId,
@@ -105,47 +175,154 @@ public class ReportController {
     }
 
     @PostMapping("/{reportId}/generate")
-    public ResponseEntity<String> generateReport(
+    public ResponseEntity<RenderJob> generateReport(
             @PathVariable String reportId,
             @RequestParam(defaultValue = "PDF") ReportFormat format) {
 
-        logger.info("Generating {} report for report ID: {}", format, reportId);
+        logger.info("Queueing {} report for report ID: {}", format, reportId);
+
+        if (!reportService.reportExists(reportId)) {
+            return ResponseEntity.notFound().build();
+        }
 
         try {
-            String reportUrl = reportService.generateReport(reportId, format);
-            return ResponseEntity.ok(reportUrl);
-        } catch (RuntimeException e) {
-            logger.error("Failed to generate report", e);
+            RenderJob job = renderQueue.submit(reportId, format);
+            // Already rendered: the job carries the download URL
+            return ResponseEntity.status(job.isFinished() ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/reports/jobs/{id}")
+                            .buildAndExpand(job.getJobId())
+                            .toUri())
+                    .body(job);
+        } catch (TaskRejectedException e) {
+            logger.warn("Rejected {} render of report {}: {}", format, reportId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+    }
+
+    // Every requested format in one synchronous call; no format means all of them
+    @PostMapping("/{reportId}/render")
+    public ResponseEntity<Map<ReportFormat, String>> renderReport(
+            @PathVariable String reportId,
+            @RequestParam(required = false) List<ReportFormat> format) {
+
+        List<ReportFormat> formats = format == null || format.isEmpty() ? Arrays.asList(ReportFormat.values()) : format;
+        logger.info("Rendering {} reports for report ID: {}", formats, reportId);
+
+        if (!reportService.reportExists(reportId)) {
             return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(reportService.generateReports(reportId, formats));
         } catch (Exception e) {
-            logger.error("Unexpected error generating report", e);
+            logger.error("Failed to render reports for ID: {}", reportId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    @GetMapping("/download/{fileName}")
-    public ResponseEntity<Resource> downloadReport(@PathVariable String fileName) {
-        logger.info("Downloading report file: {}", fileName);
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getRenderJob(@PathVariable String jobId) {
+        Optional<RenderJob> job = renderQueue.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(renderJobNotFound(jobId));
+        }
+        return ResponseEntity.ok(job.get());
+    }
 
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRenderJob(@PathVariable String jobId) {
+        Optional<RenderJob> job = renderQueue.getJob(jobId);
+        if (job.isPresent()) {
+            return ResponseEntity.ok(renderQueue.subscribe(job.get()));
+        }
+
+        // The stream's only event explains the 404, since an event stream has no other body
+        SseEmitter emitter = new SseEmitter();
         try {
-            String reportsPath = System.getProperty("app.reports.storage.path", "/tmp/reports");
-            File file = Paths.get(reportsPath, fileName).toFile();
+            emitter.send(SseEmitter.event().name("error").data(renderJobNotFound(jobId), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(emitter);
+    }
 
-            if (!file.exists()) {
-                return ResponseEntity.notFound().build();
-            }
+    // Unknown and expired jobs look the same once the record is gone
+    private ProblemDetail renderJobNotFound(String jobId) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND,
+                "No render job " + jobId + ". Jobs are kept for " + renderQueue.getJobRetentionMinutes()
+                        + " minutes after their last update; submit the render again.");
+        problem.setTitle("Render job not found");
+        return problem;
+    }
+
+    @GetMapping("/{reportId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamReport(
+            @PathVariable String reportId,
+            @RequestParam(defaultValue = "PDF") ReportFormat format) {
+
+        logger.info("Streaming {} report for report ID: {}", format, reportId);
+
+        Optional<AnalysisReport> report = reportService.findById(reportId);
+        if (report.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Rendered directly into the response; nothing is written to report storage
+        StreamingResponseBody body = out -> reportService.streamReport(report.get(), format, out);
+        String fileName = "report_" + reportId + "." + format.toString().toLowerCase();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(determineContentType(fileName)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam String userId,
+            @RequestParam(required = false) String projectName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "PDF") ReportFormat format) {
+
+        logger.info("Exporting {} reports for user: {}, project: {}, from {} to {}", format, userId, projectName, from, to);
+
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
 
-            Resource resource = new FileSystemResource(file);
-            String contentType = determineContentType(fileName);
+        StreamingResponseBody body = out -> exportService.exportReports(userId, projectName, from, to, format, out);
+        String scope = projectName != null ? projectName : userId;
+        String fileName = "reports_" + scope.replaceAll("[^a-zA-Z0-9]", "_")
+                + "_" + format.toString().toLowerCase() + ".zip";
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                    .body(resource);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
 
+    @GetMapping("/download/{fileName}")
+    public void downloadReport(@PathVariable String fileName,
+                               HttpServletRequest request,
+                               HttpServletResponse response) {
+        logger.info("Downloading report file: {}", fileName);
+
+        try {
+            MediaType contentType = MediaType.parseMediaType(determineContentType(fileName));
+            if (!downloadService.serve(fileName, contentType, request, response)) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
         } catch (Exception e) {
             logger.error("Failed to download report file: {}", fileName, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            if (!response.isCommitted()) {
+                response.resetBuffer();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -162,6 +339,18 @@ public class ReportController {
         }
     }
 
+    @GetMapping("/analytics/{userId}")
+    public ResponseEntity<Map<String, Object>> getUserAnalytics(@PathVariable String userId) {
+        logger.info("Generating analytics for user: {}", userId);
+
+        try {
+            return ResponseEntity.ok(analyticsService.generateUserAnalytics(userId));
+        } catch (Exception e) {
+            logger.error("Failed to generate user analytics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PutMapping("/{reportId}/failed")
     public ResponseEntity<Void> markReportFailed(
             @PathVariable String reportId,
@@ -0,0 +1,42 @@
+package com.devflow.report.controller;
+
+import com.devflow.report.dto.RollupCheckResult;
+import com.devflow.report.service.ReportRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reports/rollups")
+public class RollupController {
+    private static final Logger logger = LoggerFactory.getLogger(RollupController.class);
+
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Void> backfill(@RequestParam(defaultValue = "0") int days) {
+        logger.info("Starting rollup backfill for {} days", days > 0 ? days : "all");
+
+        rollupService.backfill(days);
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/check")
+    public ResponseEntity<RollupCheckResult> check(
+            @RequestParam(defaultValue = "31") int days,
+            @RequestParam(defaultValue = "false") boolean repair) {
+
+        logger.info("Checking rollups for the last {} days (repair: {})", days, repair);
+
+        try {
+            return ResponseEntity.ok(rollupService.verify(days, repair));
+        } catch (Exception e) {
+            logger.error("Rollup check failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.devflow.report.controller;
+
+import com.devflow.report.model.ReportTrendPoint;
+import com.devflow.report.service.ReportTrendService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports/trends")
+public class TrendController {
+    private static final Logger logger = LoggerFactory.getLogger(TrendController.class);
+
+    @Autowired
+    private ReportTrendService trendService;
+
+    @GetMapping("/{userId}/{projectName}")
+    public ResponseEntity<List<ReportTrendPoint>> getProjectTrend(
+            @PathVariable String userId,
+            @PathVariable String projectName,
+            @RequestParam(required = false) String fileName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        logger.info("Retrieving trend of project {} for user: {}", projectName, userId);
+
+        try {
+            return ResponseEntity.ok(trendService.getProjectTrend(userId, projectName, fileName, from, to));
+        } catch (Exception e) {
+            logger.error("Failed to retrieve project trend", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/{userId}/{projectName}/rebuild")
+    public ResponseEntity<Integer> rebuildProjectTrend(@PathVariable String userId,
+                                                       @PathVariable String projectName) {
+        logger.info("Rebuilding trend of project {} for user: {}", projectName, userId);
+
+        try {
+            return ResponseEntity.ok(trendService.rebuildProject(userId, projectName));
+        } catch (Exception e) {
+            logger.error("Failed to rebuild project trend", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
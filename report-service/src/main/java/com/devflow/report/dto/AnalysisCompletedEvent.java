@@ -0,0 +1,74 @@
+package com.devflow.report.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A completed analysis, published by code-analysis-service to {@code devflow.exchange} with
+ * routing key {@code analysis.completed} and the AMQP {@code type} property set to
+ * {@link #TYPE}. Its report is created or completed in one upsert keyed by {@code analysisId}.
+ */
+public class AnalysisCompletedEvent {
+    public static final String TYPE = "analysis.completed";
+
+    private Long analysisId;
+    private String userId;
+    private String projectName;
+    private String fileName;
+    private String fileType;
+    private Integer complexityScore;
+    private Integer qualityScore;
+    private Integer maintainabilityScore;
+    private List<String> issues;
+    private List<String> suggestions;
+    private String summary;
+    private String promptVersion;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public AnalysisCompletedEvent() {}
+
+    // Getters and Setters
+    public Long getAnalysisId() { return analysisId; }
+    public void setAnalysisId(Long analysisId) { this.analysisId = analysisId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getProjectName() { return projectName; }
+    public void setProjectName(String projectName) { this.projectName = projectName; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getFileType() { return fileType; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+
+    public Integer getComplexityScore() { return complexityScore; }
+    public void setComplexityScore(Integer complexityScore) { this.complexityScore = complexityScore; }
+
+    public Integer getQualityScore() { return qualityScore; }
+    public void setQualityScore(Integer qualityScore) { this.qualityScore = qualityScore; }
+
+    public Integer getMaintainabilityScore() { return maintainabilityScore; }
+    public void setMaintainabilityScore(Integer maintainabilityScore) { this.maintainabilityScore = maintainabilityScore; }
+
+    public List<String> getIssues() { return issues; }
+    public void setIssues(List<String> issues) { this.issues = issues; }
+
+    public List<String> getSuggestions() { return suggestions; }
+    public void setSuggestions(List<String> suggestions) { this.suggestions = suggestions; }
+
+    public String getSummary() { return summary; }
+    public void setSummary(String summary) { this.summary = summary; }
+
+    public String getPromptVersion() { return promptVersion; }
+    public void setPromptVersion(String promptVersion) { this.promptVersion = promptVersion; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
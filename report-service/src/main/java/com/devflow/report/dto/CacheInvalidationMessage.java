@@ -0,0 +1,41 @@
+package com.devflow.report.dto;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Broadcast to every report-service replica after a write, so each drops the cached reads the
+ * write made stale. Reports completed by analysis id are named by that id, since the writer
+ * does not know their report ids.
+ */
+public class CacheInvalidationMessage {
+
+    // Instance that sent the message; it has already invalidated its own cache
+    private String origin;
+    private Set<String> reportIds = new HashSet<>();
+    private Set<Long> analysisIds = new HashSet<>();
+    private Set<String> userIds = new HashSet<>();
+
+    // Constructors
+    public CacheInvalidationMessage() {}
+
+    public CacheInvalidationMessage(String origin, Set<String> reportIds, Set<Long> analysisIds, Set<String> userIds) {
+        this.origin = origin;
+        this.reportIds = reportIds;
+        this.analysisIds = analysisIds;
+        this.userIds = userIds;
+    }
+
+    // Getters and Setters
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public Set<String> getReportIds() { return reportIds; }
+    public void setReportIds(Set<String> reportIds) { this.reportIds = reportIds; }
+
+    public Set<Long> getAnalysisIds() { return analysisIds; }
+    public void setAnalysisIds(Set<Long> analysisIds) { this.analysisIds = analysisIds; }
+
+    public Set<String> getUserIds() { return userIds; }
+    public void setUserIds(Set<String> userIds) { this.userIds = userIds; }
+}
@@ -0,0 +1,36 @@
+package com.devflow.report.dto;
+
+import com.devflow.report.model.CodeIssue;
+
+import java.time.LocalDateTime;
+
+/**
+ * One issue of a report, with enough of the report to locate it, for issue lists that span
+ * reports.
+ */
+public class IssueListItemDto {
+    private String reportId;
+    private String projectName;
+    private String fileName;
+    private LocalDateTime createdAt;
+    private CodeIssue issue;
+
+    // Constructors
+    public IssueListItemDto() {}
+
+    // Getters and Setters
+    public String getReportId() { return reportId; }
+    public void setReportId(String reportId) { this.reportId = reportId; }
+
+    public String getProjectName() { return projectName; }
+    public void setProjectName(String projectName) { this.projectName = projectName; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public CodeIssue getIssue() { return issue; }
+    public void setIssue(CodeIssue issue) { this.issue = issue; }
+}
@@ -0,0 +1,67 @@
+package com.devflow.report.dto;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a report history list. The full report is loaded only by GET /{reportId}.
+ */
+public class ReportListItemDto {
+    private String id;
+    private String projectName;
+    private String fileName;
+    private String language;
+    private ReportStatus status;
+    private String grade;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ReportListItemDto() {}
+
+    public ReportListItemDto(String id, String projectName, String fileName, String language,
+                             ReportStatus status, String grade, LocalDateTime createdAt) {
+        this.id = id;
+        this.projectName = projectName;
+        this.fileName = fileName;
+        this.language = language;
+        this.status = status;
+        this.grade = grade;
+        this.createdAt = createdAt;
+    }
+
+    public static ReportListItemDto from(AnalysisReport report) {
+        return new ReportListItemDto(
+                report.getId(),
+                report.getProjectName(),
+                report.getFileName(),
+                report.getLanguage(),
+                report.getStatus(),
+                report.getQualityMetrics() != null ? report.getQualityMetrics().getOverallGrade() : null,
+                report.getCreatedAt()
+        );
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProjectName() { return projectName; }
+    public void setProjectName(String projectName) { this.projectName = projectName; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+
+    public ReportStatus getStatus() { return status; }
+    public void setStatus(ReportStatus status) { this.status = status; }
+
+    public String getGrade() { return grade; }
+    public void setGrade(String grade) { this.grade = grade; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
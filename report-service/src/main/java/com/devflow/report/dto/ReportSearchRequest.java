@@ -0,0 +1,60 @@
+package com.devflow.report.dto;
+
+import com.devflow.report.model.IssueSeverity;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filters of a report search. Every filter is optional; list filters match any of their values.
+ */
+public class ReportSearchRequest {
+    // Words or "quoted phrases" searched in file and project names, issue texts and suggestions
+    private String q;
+    private String projectName;
+    private List<String> language;
+    private List<IssueSeverity> severity;
+    private List<String> grade;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    // nextCursor of the previous page; absent for the first page
+    private String cursor;
+    private int size = 20;
+
+    // Constructors
+    public ReportSearchRequest() {}
+
+    // Getters and Setters
+    public String getQ() { return q; }
+    public void setQ(String q) { this.q = q; }
+
+    public String getProjectName() { return projectName; }
+    public void setProjectName(String projectName) { this.projectName = projectName; }
+
+    public List<String> getLanguage() { return language; }
+    public void setLanguage(List<String> language) { this.language = language; }
+
+    public List<IssueSeverity> getSeverity() { return severity; }
+    public void setSeverity(List<IssueSeverity> severity) { this.severity = severity; }
+
+    public List<String> getGrade() { return grade; }
+    public void setGrade(List<String> grade) { this.grade = grade; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
@@ -0,0 +1,37 @@
+package com.devflow.report.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of report search hits, newest first. Facets count every report matching the
+ * search, not just this page, and are only computed for the first page.
+ */
+public class ReportSearchResult {
+    private List<ReportListItemDto> items;
+
+    // Pass back as cursor for the next page; null on the last page
+    private String nextCursor;
+
+    // Facet (language, severity, grade, month) -> value -> number of matching reports
+    private Map<String, Map<String, Long>> facets;
+
+    // Constructors
+    public ReportSearchResult() {}
+
+    public ReportSearchResult(List<ReportListItemDto> items, String nextCursor, Map<String, Map<String, Long>> facets) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<ReportListItemDto> getItems() { return items; }
+    public void setItems(List<ReportListItemDto> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public Map<String, Map<String, Long>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Long>> facets) { this.facets = facets; }
+}
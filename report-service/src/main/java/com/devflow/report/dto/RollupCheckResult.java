@@ -0,0 +1,55 @@
+package com.devflow.report.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of comparing stored rollups with a recomputation from the raw reports.
+ */
+public class RollupCheckResult {
+    private String fromDay;
+    private int daysChecked;
+    private long bucketsChecked;
+    private long missing;
+    private long mismatched;
+    private long orphaned;
+    private long repaired;
+    // First few offending bucket ids, for the logs and the admin endpoint
+    private List<String> samples = new ArrayList<>();
+
+    // Constructors
+    public RollupCheckResult() {}
+
+    public RollupCheckResult(String fromDay) {
+        this.fromDay = fromDay;
+    }
+
+    public boolean isConsistent() {
+        return missing == 0 && mismatched == 0 && orphaned == 0;
+    }
+
+    // Getters and Setters
+    public String getFromDay() { return fromDay; }
+    public void setFromDay(String fromDay) { this.fromDay = fromDay; }
+
+    public int getDaysChecked() { return daysChecked; }
+    public void setDaysChecked(int daysChecked) { this.daysChecked = daysChecked; }
+
+    public long getBucketsChecked() { return bucketsChecked; }
+    public void setBucketsChecked(long bucketsChecked) { this.bucketsChecked = bucketsChecked; }
+
+    public long getMissing() { return missing; }
+    public void setMissing(long missing) { this.missing = missing; }
+
+    public long getMismatched() { return mismatched; }
+    public void setMismatched(long mismatched) { this.mismatched = mismatched; }
+
+    public long getOrphaned() { return orphaned; }
+    public void setOrphaned(long orphaned) { this.orphaned = orphaned; }
+
+    public long getRepaired() { return repaired; }
+    public void setRepaired(long repaired) { this.repaired = repaired; }
+
+    public List<String> getSamples() { return samples; }
+    public void setSamples(List<String> samples) { this.samples = samples; }
+}
@@ -0,0 +1,79 @@
+package com.devflow.report.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of the user analytics aggregation: one {@code $facet} output document holding
+ * only the counts and averages, never the reports themselves.
+ */
+public class UserAnalyticsStats {
+    // $group with _id null yields at most one element per window
+    private List<WindowStats> weekly = new ArrayList<>();
+    private List<WindowStats> monthly = new ArrayList<>();
+    private List<LanguageCount> languages = new ArrayList<>();
+    private List<SeverityCount> severities = new ArrayList<>();
+
+    // Constructors
+    public UserAnalyticsStats() {}
+
+    // Getters and Setters
+    public List<WindowStats> getWeekly() { return weekly; }
+    public void setWeekly(List<WindowStats> weekly) { this.weekly = weekly; }
+
+    public List<WindowStats> getMonthly() { return monthly; }
+    public void setMonthly(List<WindowStats> monthly) { this.monthly = monthly; }
+
+    public List<LanguageCount> getLanguages() { return languages; }
+    public void setLanguages(List<LanguageCount> languages) { this.languages = languages; }
+
+    public List<SeverityCount> getSeverities() { return severities; }
+    public void setSeverities(List<SeverityCount> severities) { this.severities = severities; }
+
+    public static class WindowStats {
+        private long count;
+        private Double avgQuality;
+        private Double minQuality;
+        private Double maxQuality;
+
+        public WindowStats() {}
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public Double getAvgQuality() { return avgQuality; }
+        public void setAvgQuality(Double avgQuality) { this.avgQuality = avgQuality; }
+
+        public Double getMinQuality() { return minQuality; }
+        public void setMinQuality(Double minQuality) { this.minQuality = minQuality; }
+
+        public Double getMaxQuality() { return maxQuality; }
+        public void setMaxQuality(Double maxQuality) { this.maxQuality = maxQuality; }
+    }
+
+    public static class LanguageCount {
+        private String language;
+        private long count;
+
+        public LanguageCount() {}
+
+        public String getLanguage() { return language; }
+        public void setLanguage(String language) { this.language = language; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    public static class SeverityCount {
+        private String severity;
+        private long count;
+
+        public SeverityCount() {}
+
+        public String getSeverity() { return severity; }
+        public void setSeverity(String severity) { this.severity = severity; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+}
@@ -0,0 +1,27 @@
+package com.devflow.report.messaging;
+
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.retry.RepublishMessageRecoverer;
+
+import java.util.List;
+
+/**
+ * Republishes analysis results that could not be applied to the dead-letter queue, with the
+ * exception message, stack trace and original routing in the headers. Handles whole batches
+ * once their retries are exhausted as well as single messages rejected by the listener.
+ */
+public class AnalysisResultDeadLetterer extends RepublishMessageRecoverer implements MessageBatchRecoverer {
+
+    public AnalysisResultDeadLetterer(AmqpTemplate template, String exchange, String routingKey) {
+        super(template, exchange, routingKey);
+    }
+
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        for (Message message : messages) {
+            recover(message, cause);
+        }
+    }
+}
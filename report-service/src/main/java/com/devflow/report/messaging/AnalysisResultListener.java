@@ -1,39 +1,147 @@
 package com.devflow.report.messaging;
 
+import com.devflow.report.config.RabbitMQConfig;
+import com.devflow.report.dto.AnalysisCompletedEvent;
 import com.devflow.report.dto.AnalysisResultDto;
+import com.devflow.report.service.ReportMetrics;
 import com.devflow.report.service.ReportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 public class AnalysisResultListener {
     private static final Logger logger = LoggerFactory.getLogger(AnalysisResultListener.class);
 
+    // Bind the body straight to the DTO, whatever type id the producer put in the headers
+    private static final ParameterizedTypeReference<AnalysisResultDto> RESULT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<AnalysisCompletedEvent> COMPLETION_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
     @Autowired
     private ReportService reportService;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    @RabbitListener(queues = "analysis.results")
-    public void handleAnalysisResult(String message) {
-        logger.info("Received analysis result message: {}", message);
+    @Autowired
+    private CompactMessageConverter messageConverter;
 
-        try {
-            AnalysisResultDto result = objectMapper.readValue(message, AnalysisResultDto.class);
-            reportService.updateReportWithResults(result.getReportId(), result);
+    @Autowired
+    private AnalysisResultDeadLetterer deadLetterer;
 
-            logger.info("Successfully processed analysis result for report: {}", result.getReportId());
+    @Autowired
+    private ReportMetrics metrics;
 
-        } catch (Exception e) {
-            logger.error("Failed to process analysis result message: {}", message, e);
-            // In a production system, you might want to send this to a dead letter queue
-            // or implement retry logic
+    /**
+     * Applies a batch of analysis results with one bulk write. The queue carries two kinds:
+     * {@link AnalysisCompletedEvent}s from code-analysis-service, told apart by the AMQP type
+     * property, which create their report, and {@link AnalysisResultDto}s for a report created
+     * beforehand. Messages that cannot be read, or whose report does not exist, are dead-lettered
+     * one by one and the rest of the batch is applied; an exception from a write fails the
+     * batch, which is retried and then dead-lettered by the container.
+     */
+    @RabbitListener(queues = RabbitMQConfig.ANALYSIS_RESULTS_QUEUE,
+            containerFactory = RabbitMQConfig.ANALYSIS_RESULTS_CONTAINER_FACTORY)
+    public void handleAnalysisResults(List<Message> messages) {
+        logger.debug("Received batch of {} analysis results", messages.size());
+        long start = System.nanoTime();
+        recordLag(messages);
+
+        List<AnalysisCompletedEvent> completions = new ArrayList<>(messages.size());
+        List<AnalysisResultDto> results = new ArrayList<>();
+        Map<String, List<Message>> messagesByReport = new HashMap<>();
+        int deadLettered = 0;
+        for (Message message : messages) {
+            try {
+                if (AnalysisCompletedEvent.TYPE.equals(message.getMessageProperties().getType())) {
+                    completions.add(readCompletion(message));
+                    continue;
+                }
+                AnalysisResultDto result = readResult(message);
+                results.add(result);
+                messagesByReport.computeIfAbsent(result.getReportId(), id -> new ArrayList<>(1)).add(message);
+            } catch (MessageConversionException e) {
+                logger.warn("Dead-lettering unreadable analysis result: {}", e.getMessage());
+                deadLetterer.recover(message, e);
+                deadLettered++;
+            }
+        }
+
+        if (!completions.isEmpty()) {
+            reportService.applyAnalysisCompletions(completions);
+        }
+        Set<String> missing = results.isEmpty() ? Set.of() : reportService.applyAnalysisResults(results);
+        for (String reportId : missing) {
+            logger.warn("Dead-lettering analysis result for unknown report: {}", reportId);
+            IllegalStateException cause = new IllegalStateException("Report not found: " + reportId);
+            for (Message message : messagesByReport.get(reportId)) {
+                deadLetterer.recover(message, cause);
+                deadLettered++;
+            }
+        }
+
+        metrics.recordIngestBatch(messages.size() - deadLettered, deadLettered, System.nanoTime() - start);
+        logger.info("Applied {} analysis results ({} dead-lettered)", messages.size() - deadLettered, deadLettered);
+    }
+
+    // Publish to delivery, from the timestamp producers set; messages without one are not counted
+    private void recordLag(List<Message> messages) {
+        long now = System.currentTimeMillis();
+        for (Message message : messages) {
+            if (message.getMessageProperties().getTimestamp() != null) {
+                metrics.recordIngestLag(Duration.ofMillis(now - message.getMessageProperties().getTimestamp().getTime()));
+            }
+        }
+    }
+
+    private AnalysisCompletedEvent readCompletion(Message message) {
+        AnalysisCompletedEvent event = read(message, COMPLETION_TYPE, AnalysisCompletedEvent.class);
+        if (event.getAnalysisId() == null || event.getUserId() == null) {
+            throw new MessageConversionException("Analysis completion has no analysisId or userId");
+        }
+        return event;
+    }
+
+    private AnalysisResultDto readResult(Message message) {
+        AnalysisResultDto result = read(message, RESULT_TYPE, AnalysisResultDto.class);
+        if (result.getReportId() == null || result.getReportId().isBlank()) {
+            throw new MessageConversionException("Analysis result has no reportId");
+        }
+        return result;
+    }
+
+    private <T> T read(Message message, ParameterizedTypeReference<T> type, Class<T> expected) {
+        Object body;
+        try {
+            body = messageConverter.fromMessage(message, type);
+        } catch (MessageConversionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Failed to read analysis result", e);
+        }
+        // The converter hands back the raw bytes for content types it does not handle
+        if (!expected.isInstance(body)) {
+            throw new MessageConversionException("Unsupported content type: "
+                    + message.getMessageProperties().getContentType());
         }
+        return expected.cast(body);
     }
 
     @RabbitListener(queues = "analysis.errors")
@@ -0,0 +1,156 @@
+package com.devflow.report.messaging;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePropertiesBuilder;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SmartMessageConverter;
+import org.springframework.core.ParameterizedTypeReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Converter for the messages exchanged with the other services. Bodies are written as JSON or,
+ * more compactly, as Smile (Jackson's binary JSON, which also back-references repeated property
+ * names), and gzipped from {@code compressAboveBytes} on. Reading goes by the message's content
+ * type and content encoding alone, so a producer can change its encoding without its consumers
+ * being reconfigured.
+ */
+public class CompactMessageConverter implements SmartMessageConverter {
+
+    public static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+    private static final String GZIP = "gzip";
+
+    public enum Encoding { JSON, SMILE }
+
+    private final Jackson2JsonMessageConverter jsonConverter;
+    private final ObjectMapper smileMapper;
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+    private final Encoding encoding;
+    private final int compressAboveBytes;
+
+    /**
+     * @param objectMapper       configures both encodings, so they agree on java.time and unknown properties
+     * @param compressAboveBytes bodies this large or larger are gzipped; 0 disables compression
+     * @param trustedPackages    packages a Smile message's type id header may name
+     */
+    public CompactMessageConverter(ObjectMapper objectMapper, Encoding encoding, int compressAboveBytes,
+                                   String... trustedPackages) {
+        this.jsonConverter = new Jackson2JsonMessageConverter(objectMapper);
+        // Short repeated values (severities, issue types) become back-references, like property names
+        this.smileMapper = objectMapper.copyWith(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+        this.typeMapper.setTrustedPackages(trustedPackages);
+        this.encoding = encoding;
+        this.compressAboveBytes = compressAboveBytes;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties properties) {
+        Message message = encoding == Encoding.SMILE
+                ? toSmileMessage(object, properties)
+                : jsonConverter.toMessage(object, properties);
+
+        if (compressAboveBytes > 0 && message.getBody().length >= compressAboveBytes) {
+            return compress(message);
+        }
+        return message;
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        return fromMessage(message, null);
+    }
+
+    @Override
+    public Object fromMessage(Message message, Object conversionHint) {
+        if (GZIP.equals(message.getMessageProperties().getContentEncoding())) {
+            message = decompress(message);
+        }
+
+        String contentType = message.getMessageProperties().getContentType();
+        if (contentType != null && contentType.startsWith(SMILE_CONTENT_TYPE)) {
+            return fromSmileMessage(message, conversionHint);
+        }
+        return jsonConverter.fromMessage(message, conversionHint);
+    }
+
+    private Message toSmileMessage(Object object, MessageProperties properties) {
+        byte[] body;
+        try {
+            body = smileMapper.writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert message content to Smile", e);
+        }
+        properties.setContentType(SMILE_CONTENT_TYPE);
+        properties.setContentLength(body.length);
+        typeMapper.fromJavaType(smileMapper.constructType(object.getClass()), properties);
+        return new Message(body, properties);
+    }
+
+    private Object fromSmileMessage(Message message, Object conversionHint) {
+        MessageProperties properties = message.getMessageProperties();
+        // Same precedence as the JSON converter: explicit hint, then listener parameter, then type id header
+        JavaType type;
+        if (conversionHint instanceof ParameterizedTypeReference<?> reference) {
+            type = smileMapper.constructType(reference.getType());
+        } else if (properties.getInferredArgumentType() != null) {
+            type = smileMapper.constructType(properties.getInferredArgumentType());
+        } else {
+            type = typeMapper.toJavaType(properties);
+        }
+
+        try {
+            return smileMapper.readValue(message.getBody(), type);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert Smile message content", e);
+        }
+    }
+
+    private static Message compress(Message message) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(message.getBody().length / 4);
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(message.getBody());
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to compress message", e);
+        }
+        // Already compressed content (or very small bodies) can come out larger
+        if (compressed.size() >= message.getBody().length) {
+            return message;
+        }
+
+        MessageProperties properties = message.getMessageProperties();
+        properties.setContentEncoding(GZIP);
+        properties.setContentLength(compressed.size());
+        return new Message(compressed.toByteArray(), properties);
+    }
+
+    // Leaves the received message as it is, so it can still be dead-lettered unchanged
+    private static Message decompress(Message message) {
+        byte[] body;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(message.getBody()))) {
+            body = in.readAllBytes();
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to decompress message", e);
+        }
+
+        MessageProperties properties = MessagePropertiesBuilder.fromClonedProperties(message.getMessageProperties())
+                .setContentEncoding(null)
+                .build();
+        properties.setContentLength(body.length);
+        return new Message(body, properties);
+    }
+}
@@ -0,0 +1,23 @@
+package com.devflow.report.messaging;
+
+import com.devflow.report.dto.CacheInvalidationMessage;
+import com.devflow.report.service.ReportReadCache;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReportCacheInvalidationListener {
+
+    @Autowired
+    private ReportReadCache readCache;
+
+    /**
+     * Drops the cached reads another replica's write made stale. Delivered to this instance's
+     * own queue on the report cache exchange, so every replica receives every invalidation.
+     */
+    @RabbitListener(queues = "#{reportCacheInvalidationQueue.name}")
+    public void handleInvalidation(CacheInvalidationMessage message) {
+        readCache.applyInvalidation(message);
+    }
+}
@@ -3,6 +3,8 @@ package com.devflow.report.model;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
@@ -11,6 +13,17 @@ import java.util.List;
 import java.util.Map;
 
 @Document(collection = "analysis_reports")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_status_created_idx", def = "{ 'userId': 1, 'status': 1, 'createdAt': 1 }"),
+        // Newest-first history lists, without an in-memory sort
+        @CompoundIndex(name = "user_created_idx", def = "{ 'userId': 1, 'createdAt': -1 }"),
+        @CompoundIndex(name = "user_project_created_idx", def = "{ 'userId': 1, 'projectName': 1, 'createdAt': -1 }"),
+        // Severity-filtered issue lists; multikey over the issues array
+        @CompoundIndex(name = "user_issue_severity_created_idx",
+                def = "{ 'userId': 1, 'issues.severity': 1, 'createdAt': -1 }"),
+        // Retention's oldest-first scan of each status
+        @CompoundIndex(name = "status_created_idx", def = "{ 'status': 1, 'createdAt': 1 }")
+})
 public class AnalysisReport {
     @Id
     private String id;
@@ -21,6 +34,10 @@ public class AnalysisReport {
     @Indexed
     private String projectName;
 
+    // Set on reports created from code-analysis-service events; redeliveries upsert onto it
+    @Indexed(name = "analysis_id_idx", unique = true, sparse = true)
+    private Long analysisId;
+
     private String fileName;
     private String language;
     private ReportStatus status;
@@ -43,6 +60,10 @@ public class AnalysisReport {
 
     private LocalDateTime completedAt;
 
+    // Set by retention once the report is archived; Mongo's TTL monitor deletes it from then on
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0, sparse = true)
+    private LocalDateTime expireAt;
+
     // Constructors
     public AnalysisReport() {}
 
@@ -64,6 +85,9 @@ public class AnalysisReport {
     public String getProjectName() { return projectName; }
     public void setProjectName(String projectName) { this.projectName = projectName; }
 
+    public Long getAnalysisId() { return analysisId; }
+    public void setAnalysisId(Long analysisId) { this.analysisId = analysisId; }
+
     public String getFileName() { return fileName; }
     public void setFileName(String fileName) { this.fileName = fileName; }
 
@@ -99,6 +123,9 @@ public class AnalysisReport {
 
     public LocalDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public LocalDateTime getExpireAt() { return expireAt; }
+    public void setExpireAt(LocalDateTime expireAt) { this.expireAt = expireAt; }
 }
 
 
@@ -0,0 +1,72 @@
+package com.devflow.report.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One asynchronous render of a report into a file format. The instance that accepted the job
+ * runs it and records every status change in Mongo, so any instance can report on it; the
+ * record is dropped a while after its last change.
+ */
+@Document(collection = "render_jobs")
+public class RenderJob {
+    @Id
+    private String jobId;
+    private String reportId;
+    private ReportFormat format;
+    private LocalDateTime createdAt;
+
+    private volatile ReportStatus status = ReportStatus.PENDING;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String reportUrl;
+    private volatile String errorMessage;
+
+    // Pushed forward on every change; Mongo's TTL monitor deletes the record from then on
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0)
+    private volatile LocalDateTime expireAt;
+
+    // Constructors
+    public RenderJob() {}
+
+    public RenderJob(String jobId, String reportId, ReportFormat format) {
+        this.jobId = jobId;
+        this.reportId = reportId;
+        this.format = format;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return status == ReportStatus.COMPLETED || status == ReportStatus.FAILED;
+    }
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+
+    public String getReportId() { return reportId; }
+
+    public ReportFormat getFormat() { return format; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public ReportStatus getStatus() { return status; }
+    public void setStatus(ReportStatus status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getReportUrl() { return reportUrl; }
+    public void setReportUrl(String reportUrl) { this.reportUrl = reportUrl; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getExpireAt() { return expireAt; }
+    public void setExpireAt(LocalDateTime expireAt) { this.expireAt = expireAt; }
+}
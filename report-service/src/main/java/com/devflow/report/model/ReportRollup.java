@@ -0,0 +1,92 @@
+package com.devflow.report.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-aggregated statistics of the completed reports of one user, in one language, on one
+ * day. Kept up to date incrementally as reports complete, so analytics read a handful of
+ * these instead of the reports themselves.
+ */
+@Document(collection = "report_rollups")
+@CompoundIndex(name = "user_day_idx", def = "{ 'userId': 1, 'day': 1 }")
+public class ReportRollup {
+    // userId|language|day, so concurrent upserts of the same bucket converge on one document
+    @Id
+    private String id;
+
+    private String userId;
+    private String language;
+
+    // ISO yyyy-MM-dd in the rollup zone; sorts and range-queries as a plain string
+    @Indexed
+    private String day;
+
+    private long reportCount;
+
+    // Reports that carried quality metrics, i.e. the divisor for maintainabilitySum
+    private long qualityCount;
+    private double maintainabilitySum;
+    private Double maintainabilityMin;
+    private Double maintainabilityMax;
+
+    // Keyed by IssueSeverity name; severities without issues may be absent
+    private Map<String, Long> issueCounts = new HashMap<>();
+
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ReportRollup() {}
+
+    public static String bucketId(String userId, String language, String day) {
+        return userId + "|" + language + "|" + day;
+    }
+
+    public double getAverageMaintainability() {
+        return qualityCount > 0 ? maintainabilitySum / qualityCount : 0.0;
+    }
+
+    public long getIssueCount(IssueSeverity severity) {
+        return issueCounts != null ? issueCounts.getOrDefault(severity.name(), 0L) : 0L;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+
+    public String getDay() { return day; }
+    public void setDay(String day) { this.day = day; }
+
+    public long getReportCount() { return reportCount; }
+    public void setReportCount(long reportCount) { this.reportCount = reportCount; }
+
+    public long getQualityCount() { return qualityCount; }
+    public void setQualityCount(long qualityCount) { this.qualityCount = qualityCount; }
+
+    public double getMaintainabilitySum() { return maintainabilitySum; }
+    public void setMaintainabilitySum(double maintainabilitySum) { this.maintainabilitySum = maintainabilitySum; }
+
+    public Double getMaintainabilityMin() { return maintainabilityMin; }
+    public void setMaintainabilityMin(Double maintainabilityMin) { this.maintainabilityMin = maintainabilityMin; }
+
+    public Double getMaintainabilityMax() { return maintainabilityMax; }
+    public void setMaintainabilityMax(Double maintainabilityMax) { this.maintainabilityMax = maintainabilityMax; }
+
+    public Map<String, Long> getIssueCounts() { return issueCounts; }
+    public void setIssueCounts(Map<String, Long> issueCounts) { this.issueCounts = issueCounts; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
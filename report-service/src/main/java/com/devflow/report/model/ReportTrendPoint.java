@@ -0,0 +1,105 @@
+package com.devflow.report.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One completed report of a project as a point of its trend: the report's quality metrics and
+ * issue count, and how its issues changed since the previous report of the same file. Written
+ * as each report completes, so a trend is read from these small documents alone and never from
+ * the project's report history.
+ */
+@Document(collection = "report_trends")
+@CompoundIndexes({
+        @CompoundIndex(name = "project_created_idx", def = "{ 'userId': 1, 'projectName': 1, 'createdAt': 1 }"),
+        // Finding the neighbours of a point when one is added or removed
+        @CompoundIndex(name = "file_created_idx",
+                def = "{ 'userId': 1, 'projectName': 1, 'fileName': 1, 'createdAt': 1 }")
+})
+public class ReportTrendPoint {
+    // The report's id, so a report completed twice rewrites its point
+    @Id
+    private String id;
+
+    private String userId;
+    private String projectName;
+    private String fileName;
+
+    // The report's createdAt; points are ordered by it, like the reports
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    private CodeQualityMetrics metrics;
+    private int issueCount;
+
+    // Null for the first report of a file, whose issues all count as new
+    private String previousReportId;
+    private int newIssueCount;
+    private int fixedIssueCount;
+    private int persistingIssueCount;
+
+    // The first of the new and fixed issues, up to devflow.report.trends.max-listed-issues each
+    private List<CodeIssue> newIssues = new ArrayList<>();
+    private List<CodeIssue> fixedIssues = new ArrayList<>();
+
+    // Fingerprints of all of this report's issues, the baseline for the next report's delta.
+    // Trend queries leave them out.
+    @JsonIgnore
+    private List<String> issueFingerprints = new ArrayList<>();
+
+    // Constructors
+    public ReportTrendPoint() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getProjectName() { return projectName; }
+    public void setProjectName(String projectName) { this.projectName = projectName; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public CodeQualityMetrics getMetrics() { return metrics; }
+    public void setMetrics(CodeQualityMetrics metrics) { this.metrics = metrics; }
+
+    public int getIssueCount() { return issueCount; }
+    public void setIssueCount(int issueCount) { this.issueCount = issueCount; }
+
+    public String getPreviousReportId() { return previousReportId; }
+    public void setPreviousReportId(String previousReportId) { this.previousReportId = previousReportId; }
+
+    public int getNewIssueCount() { return newIssueCount; }
+    public void setNewIssueCount(int newIssueCount) { this.newIssueCount = newIssueCount; }
+
+    public int getFixedIssueCount() { return fixedIssueCount; }
+    public void setFixedIssueCount(int fixedIssueCount) { this.fixedIssueCount = fixedIssueCount; }
+
+    public int getPersistingIssueCount() { return persistingIssueCount; }
+    public void setPersistingIssueCount(int persistingIssueCount) { this.persistingIssueCount = persistingIssueCount; }
+
+    public List<CodeIssue> getNewIssues() { return newIssues; }
+    public void setNewIssues(List<CodeIssue> newIssues) { this.newIssues = newIssues; }
+
+    public List<CodeIssue> getFixedIssues() { return fixedIssues; }
+    public void setFixedIssues(List<CodeIssue> fixedIssues) { this.fixedIssues = fixedIssues; }
+
+    public List<String> getIssueFingerprints() { return issueFingerprints; }
+    public void setIssueFingerprints(List<String> issueFingerprints) { this.issueFingerprints = issueFingerprints; }
+}
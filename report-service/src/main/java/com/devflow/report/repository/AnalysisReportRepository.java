@@ -1,14 +1,17 @@
 package com.devflow.report.repository;
 
+import com.devflow.report.dto.UserAnalyticsStats;
 import com.devflow.report.model.AnalysisReport;
 import com.devflow.report.model.ReportStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,16 @@ public interface AnalysisReportRepository extends MongoRepository<AnalysisReport
     // Find reports by project
     List<AnalysisReport> findByUserIdAndProjectNameOrderByCreatedAtDesc(String userId, String projectName);
 
+    // List rows only: issues, suggestions and rawAnalysisData never leave the server
+    String LIST_FIELDS = "{ 'projectName': 1, 'fileName': 1, 'language': 1, 'status': 1, "
+            + "'qualityMetrics.overallGrade': 1, 'createdAt': 1 }";
+
+    @Query(value = "{ 'userId': ?0 }", fields = LIST_FIELDS, sort = "{ 'createdAt': -1 }")
+    Page<AnalysisReport> findListItemsByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'projectName': ?1 }", fields = LIST_FIELDS, sort = "{ 'createdAt': -1 }")
+    List<AnalysisReport> findListItemsByUserIdAndProjectName(String userId, String projectName);
+
     // Find reports by status
     List<AnalysisReport> findByStatus(ReportStatus status);
 
@@ -34,6 +47,37 @@ public interface AnalysisReportRepository extends MongoRepository<AnalysisReport
     @Query("{ 'userId': ?0, 'status': 'COMPLETED', 'createdAt': { $gte: ?1 } }")
     List<AnalysisReport> findCompletedReportsSince(String userId, LocalDateTime since);
 
+    // Weekly/monthly counts, average maintainability, monthly range, language mix and issues per
+    // severity in one round trip, matching what the rollups yield.
+    // The leading $match is served by the (userId, status, createdAt) compound index.
+    @Aggregation(pipeline = {
+            "{ $match: { 'userId': ?0, 'status': 'COMPLETED', 'createdAt': { $gte: ?2 } } }",
+            "{ $project: { 'createdAt': 1, 'language': 1, 'maintainabilityIndex': '$qualityMetrics.maintainabilityIndex', "
+                    + "'severities': { $ifNull: [ '$issues.severity', [] ] } } }",
+            "{ $facet: { "
+                    + "'weekly': [ { $match: { 'createdAt': { $gte: ?1 } } }, "
+                    + "{ $group: { '_id': null, 'count': { $sum: 1 }, 'avgQuality': { $avg: '$maintainabilityIndex' } } }, "
+                    + "{ $project: { '_id': 0 } } ], "
+                    + "'monthly': [ { $group: { '_id': null, 'count': { $sum: 1 }, 'avgQuality': { $avg: '$maintainabilityIndex' }, "
+                    + "'minQuality': { $min: '$maintainabilityIndex' }, 'maxQuality': { $max: '$maintainabilityIndex' } } }, "
+                    + "{ $project: { '_id': 0 } } ], "
+                    + "'languages': [ { $group: { '_id': '$language', 'count': { $sum: 1 } } }, "
+                    + "{ $project: { '_id': 0, 'language': '$_id', 'count': 1 } } ], "
+                    + "'severities': [ { $unwind: '$severities' }, { $group: { '_id': '$severities', 'count': { $sum: 1 } } }, "
+                    + "{ $project: { '_id': 0, 'severity': '$_id', 'count': 1 } } ] "
+                    + "} }"
+    })
+    UserAnalyticsStats aggregateUserAnalytics(String userId, LocalDateTime weekSince, LocalDateTime monthSince);
+
+    // Which of these reports still exist; only the ids are fetched
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ '_id': 1 }")
+    List<AnalysisReport> findIdsByIdIn(Collection<String> ids);
+
+    // What applying an analysis result needs for the rollups and trends, without the previous results
+    @Query(value = "{ '_id': { $in: ?0 } }",
+            fields = "{ 'userId': 1, 'projectName': 1, 'fileName': 1, 'language': 1, 'status': 1, 'createdAt': 1 }")
+    List<AnalysisReport> findCompletionStateByIdIn(Collection<String> ids);
+
     // Count reports by user and status
     long countByUserIdAndStatus(String userId, ReportStatus status);
 
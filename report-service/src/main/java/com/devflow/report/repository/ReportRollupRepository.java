@@ -0,0 +1,17 @@
+package com.devflow.report.repository;
+
+import com.devflow.report.model.ReportRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReportRollupRepository extends MongoRepository<ReportRollup, String> {
+
+    // Buckets of a user from a day onwards (days are ISO strings, so ranges compare lexically)
+    List<ReportRollup> findByUserIdAndDayGreaterThanEqual(String userId, String day);
+
+    // All buckets of one day, used by the consistency checker
+    List<ReportRollup> findByDay(String day);
+}
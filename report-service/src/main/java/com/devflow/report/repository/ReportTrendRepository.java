@@ -0,0 +1,22 @@
+package com.devflow.report.repository;
+
+import com.devflow.report.model.ReportTrendPoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ReportTrendRepository extends MongoRepository<ReportTrendPoint, String> {
+
+    // The point a new report of the file is diffed against
+    Optional<ReportTrendPoint> findFirstByUserIdAndProjectNameAndFileNameAndCreatedAtLessThanOrderByCreatedAtDesc(
+            String userId, String projectName, String fileName, LocalDateTime createdAt);
+
+    // The point whose delta changes when a report is added or removed before it
+    Optional<ReportTrendPoint> findFirstByUserIdAndProjectNameAndFileNameAndCreatedAtGreaterThanOrderByCreatedAtAsc(
+            String userId, String projectName, String fileName, LocalDateTime createdAt);
+
+    long deleteByUserIdAndProjectName(String userId, String projectName);
+}
@@ -1,10 +1,13 @@
 package com.devflow.report.service;
 
-import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.dto.UserAnalyticsStats;
+import com.devflow.report.model.IssueSeverity;
+import com.devflow.report.model.ReportRollup;
 import com.devflow.report.repository.AnalysisReportRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -16,43 +19,98 @@ public class AnalyticsService {
     @Autowired
     private AnalysisReportRepository reportRepository;
 
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private ReportReadCache readCache;
+
     public Map<String, Object> generateUserAnalytics(String userId) {
-        Map<String, Object> analytics = new HashMap<>();
+        return readCache.getAnalytics(userId, this::buildUserAnalytics);
+    }
 
-        LocalDateTime oneWeekAgo = LocalDateTime.now().minusDays(7);
-        LocalDateTime oneMonthAgo = LocalDateTime.now().minusDays(30);
+    private Map<String, Object> buildUserAnalytics(String userId) {
+        if (rollupService.isEnabled()) {
+            return generateFromRollups(userId);
+        }
 
-        List<AnalysisReport> weeklyReports = reportRepository.findCompletedReportsSince(userId, oneWeekAgo);
-        List<AnalysisReport> monthlyReports = reportRepository.findCompletedReportsSince(userId, oneMonthAgo);
+        Map<String, Object> analytics = new HashMap<>();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oneWeekAgo = now.minusDays(7);
+        LocalDateTime oneMonthAgo = now.minusDays(30);
 
-        analytics.put("weeklyReportCount", weeklyReports.size());
-        analytics.put("monthlyReportCount", monthlyReports.size());
+        // Counting, averaging and grouping all happen in Mongo; only the numbers come back
+        UserAnalyticsStats stats = reportRepository.aggregateUserAnalytics(userId, oneWeekAgo, oneMonthAgo);
+        if (stats == null) {
+            stats = new UserAnalyticsStats();
+        }
 
-        // Calculate average quality scores
-        double weeklyAvgQuality = weeklyReports.stream()
-                .filter(r -> r.getQualityMetrics() != null)
-                .mapToDouble(r -> r.getQualityMetrics().getMaintainabilityIndex())
-                .average()
-                .orElse(0.0);
+        UserAnalyticsStats.WindowStats weekly = firstOrEmpty(stats.getWeekly());
+        UserAnalyticsStats.WindowStats monthly = firstOrEmpty(stats.getMonthly());
 
-        double monthlyAvgQuality = monthlyReports.stream()
-                .filter(r -> r.getQualityMetrics() != null)
-                .mapToDouble(r -> r.getQualityMetrics().getMaintainabilityIndex())
-                .average()
-                .orElse(0.0);
+        analytics.put("weeklyReportCount", weekly.getCount());
+        analytics.put("monthlyReportCount", monthly.getCount());
 
-        analytics.put("weeklyAvgQuality", weeklyAvgQuality);
-        analytics.put("monthlyAvgQuality", monthlyAvgQuality);
+        // $avg skips reports without quality metrics and yields null when there are none
+        analytics.put("weeklyAvgQuality", weekly.getAvgQuality() != null ? weekly.getAvgQuality() : 0.0);
+        analytics.put("monthlyAvgQuality", monthly.getAvgQuality() != null ? monthly.getAvgQuality() : 0.0);
 
         // Language distribution
-        Map<String, Long> languageDistribution = monthlyReports.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        AnalysisReport::getLanguage,
-                        java.util.stream.Collectors.counting()
-                ));
+        Map<String, Long> languageDistribution = new HashMap<>();
+        for (UserAnalyticsStats.LanguageCount language : stats.getLanguages()) {
+            String name = language.getLanguage() != null ? language.getLanguage() : "unknown";
+            languageDistribution.merge(name, language.getCount(), Long::sum);
+        }
+
+        analytics.put("monthlyMinQuality", monthly.getMinQuality());
+        analytics.put("monthlyMaxQuality", monthly.getMaxQuality());
 
         analytics.put("languageDistribution", languageDistribution);
 
+        // Every severity, zeros included, as the rollup totals report them
+        Map<String, Long> issuesBySeverity = new HashMap<>();
+        for (IssueSeverity severity : IssueSeverity.values()) {
+            issuesBySeverity.put(severity.name(), 0L);
+        }
+        for (UserAnalyticsStats.SeverityCount severity : stats.getSeverities()) {
+            if (severity.getSeverity() != null) {
+                issuesBySeverity.merge(severity.getSeverity(), severity.getCount(), Long::sum);
+            }
+        }
+        analytics.put("monthlyIssuesBySeverity", issuesBySeverity);
+
+        return analytics;
+    }
+
+    // At most 30 days x languages small bucket documents, independent of report volume.
+    // Today's bucket counts too, so 7 and 30 daily buckets span the same windows as above.
+    private Map<String, Object> generateFromRollups(String userId) {
+        Map<String, Object> analytics = new HashMap<>();
+
+        LocalDate today = rollupService.today();
+        LocalDate oneWeekAgo = today.minusDays(6);
+        LocalDate oneMonthAgo = today.minusDays(29);
+
+        List<ReportRollup> rollups = rollupService.getUserRollupsSince(userId, oneMonthAgo);
+        ReportRollupService.Totals weekly = ReportRollupService.Totals.of(rollups, oneWeekAgo);
+        ReportRollupService.Totals monthly = ReportRollupService.Totals.of(rollups, oneMonthAgo);
+
+        analytics.put("weeklyReportCount", weekly.getReportCount());
+        analytics.put("monthlyReportCount", monthly.getReportCount());
+
+        analytics.put("weeklyAvgQuality", weekly.getAverageMaintainability());
+        analytics.put("monthlyAvgQuality", monthly.getAverageMaintainability());
+        analytics.put("monthlyMinQuality", monthly.getMaintainabilityMin());
+        analytics.put("monthlyMaxQuality", monthly.getMaintainabilityMax());
+
+        analytics.put("languageDistribution", monthly.getLanguages());
+        analytics.put("monthlyIssuesBySeverity", monthly.getIssuesBySeverity());
+
         return analytics;
     }
-}
\ No newline at end of file
+
+    private UserAnalyticsStats.WindowStats firstOrEmpty(List<UserAnalyticsStats.WindowStats> window) {
+        return window == null || window.isEmpty() ? new UserAnalyticsStats.WindowStats() : window.get(0);
+    }
+}
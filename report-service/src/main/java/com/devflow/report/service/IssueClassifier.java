@@ -0,0 +1,226 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.IssueSeverity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the free-text issues of an analysis into structured {@link CodeIssue}s when they are
+ * ingested: a type from a small keyword taxonomy, a severity from an explicit marker in the
+ * text or else from keywords and the type, the first line the text refers to, and a trailing
+ * "consider ..." style remedy split off as the suggestion. Deterministic, so re-ingesting an
+ * analysis yields the same issues.
+ */
+@Service
+public class IssueClassifier {
+
+    static final String GENERAL = "general";
+
+    // First match wins, so the more specific kinds come first
+    private static final Map<String, Pattern> TYPES = new LinkedHashMap<>();
+
+    static {
+        TYPES.put("security", keywords("inject", "xss", "cross-site", "csrf", "vulnerab", "secret", "password",
+                "credential", "api key", "token", "sanitiz", "unsafe deserializ", "path traversal", "encrypt",
+                "authentication", "authorization", "privilege"));
+        TYPES.put("concurrency", keywords("race condition", "deadlock", "thread-safe", "thread safe",
+                "synchroniz", "concurren", "atomic", "volatile"));
+        TYPES.put("bug", keywords("null pointer", "nullpointer", "npe", "null reference", "null check",
+                "off-by-one", "off by one", "infinite loop", "index out of", "out of bounds", "overflow",
+                "incorrect", "wrong", "bug", "crash", "undefined behavio", "logic error", "never terminates"));
+        TYPES.put("error-handling", keywords("exception", "error handling", "try-catch", "try/catch",
+                "catch block", "swallow", "unhandled", "not handled", "finally"));
+        TYPES.put("resource", keywords("leak", "not closed", "close the", "unclosed", "try-with-resources",
+                "resource", "file handle", "connection pool"));
+        TYPES.put("performance", keywords("performance", "inefficien", "slow", "n+1", "o(n", "quadratic",
+                "allocation", "cache", "redundant computation", "repeated call", "optimi"));
+        TYPES.put("complexity", keywords("complex", "too long", "too many", "nested", "god class",
+                "large method", "long method", "refactor", "split"));
+        TYPES.put("duplication", keywords("duplicat", "copy-paste", "copy paste", "repeated code", "dry"));
+        TYPES.put("testing", keywords("test", "coverage", "assert"));
+        TYPES.put("documentation", keywords("comment", "javadoc", "docstring", "documentation", "document"));
+        TYPES.put("naming", keywords("naming", "variable name", "rename", "misleading name", "unclear name",
+                "descriptive name"));
+        TYPES.put("style", keywords("style", "format", "indent", "whitespace", "magic number", "unused",
+                "dead code", "wildcard import", "convention", "readab", "typo", "hardcoded", "hard-coded"));
+    }
+
+    private static final Pattern CRITICAL_WORDS = keywords("sql injection", "command injection",
+            "remote code execution", "rce", "hardcoded password", "hardcoded secret", "hardcoded credential",
+            "hard-coded password", "hard-coded secret", "unsafe deserializ", "authentication bypass", "data loss",
+            "data corruption");
+    private static final Pattern HIGH_WORDS = keywords("null pointer", "nullpointer", "npe", "race condition",
+            "deadlock", "memory leak", "resource leak", "infinite loop", "crash", "out of bounds", "security",
+            "vulnerab", "unhandled exception", "injection");
+    private static final Pattern LOW_WORDS = keywords("minor", "nitpick", "nit:", "cosmetic", "typo",
+            "consider renaming", "could be more readable");
+
+    private static final String LEVEL = "(critical|blocker|high|major|medium|moderate|low|minor)";
+
+    // "[HIGH] ...", "Critical: ...", "... (severity: low)", "... [medium]"; a bare leading
+    // "High complexity in ..." is a sentence, not a marker
+    private static final Pattern SEVERITY_MARKER = Pattern.compile("(?i)^\\s*(?:[\\[(]" + LEVEL + "[\\])]\\s*:?"
+            + "|" + LEVEL + "\\s*(?::|\\s[-–—])\\s*)"
+            + "|\\bseverity\\s*[:=]?\\s*" + LEVEL + "\\b"
+            + "|[\\[(]" + LEVEL + "[\\])]");
+
+    // "line 42", "lines 10-12", "ln 7", "L42", "on line #3", "Foo.java:42"
+    private static final Pattern LINE_REFERENCE = Pattern.compile(
+            "(?i)(?:\\blines?\\s*#?|\\bln\\.?\\s*|\\bL(?=\\d)|\\.[a-z]{1,5}:)(\\d{1,6})\\b");
+
+    // Remedy clauses: "Suggestion: ...", "... - consider ...", "...; use ... instead"
+    private static final Pattern SUGGESTION = Pattern.compile(
+            "(?i)(?:\\s*\\b(?:suggestions?|fix|recommendations?|remedy)\\s*:\\s*"
+                    + "|\\s+[-–—]\\s+(?=(?:consider|use|replace|avoid|remove|add|prefer|rename|extract|wrap|validate|close|move)\\b)"
+                    + "|[.;,]\\s+(?=(?:consider|instead,?|prefer|you should|it is recommended)\\b))");
+
+    /**
+     * Classifies each free-text issue of an analysis.
+     */
+    public List<CodeIssue> classify(List<String> issues) {
+        if (issues == null) {
+            return new ArrayList<>();
+        }
+        List<CodeIssue> classified = new ArrayList<>(issues.size());
+        for (String issue : issues) {
+            if (issue != null && !issue.isBlank()) {
+                classified.add(classify(issue));
+            }
+        }
+        return classified;
+    }
+
+    public CodeIssue classify(String text) {
+        String description = text.trim();
+        String suggestion = null;
+
+        Matcher remedy = SUGGESTION.matcher(description);
+        if (remedy.find() && remedy.start() > 0) {
+            String rest = description.substring(remedy.end()).trim();
+            if (!rest.isEmpty()) {
+                suggestion = capitalize(rest);
+                description = description.substring(0, remedy.start()).trim();
+            }
+        }
+
+        IssueSeverity marked = null;
+        Matcher marker = SEVERITY_MARKER.matcher(description);
+        if (marker.find()) {
+            marked = severityOf(firstGroup(marker));
+            // Only a leading marker is part of the layout rather than the sentence
+            if (marker.start() == 0) {
+                description = description.substring(marker.end()).trim();
+            }
+        }
+
+        // The remedy names the fix, not the problem ("... - use a constant and cache it"), so
+        // only the description is classified; a line reference may be in either part
+        String type = typeOf(description);
+        IssueSeverity severity = marked != null ? marked : severityOf(description, type);
+        return new CodeIssue(severity, type, description, lineOf(text), suggestion);
+    }
+
+    /**
+     * Fills in what structured issues from a producer left out, from their description; set
+     * fields are kept as they are.
+     */
+    public void complete(List<CodeIssue> issues) {
+        if (issues == null) {
+            return;
+        }
+        for (CodeIssue issue : issues) {
+            if (issue == null || issue.getDescription() == null) {
+                continue;
+            }
+            if (issue.getSeverity() != null && issue.getType() != null && issue.getLineNumber() > 0) {
+                continue;
+            }
+            CodeIssue classified = classify(issue.getDescription());
+            if (issue.getType() == null) {
+                issue.setType(classified.getType());
+            }
+            if (issue.getSeverity() == null) {
+                issue.setSeverity(classified.getSeverity());
+            }
+            if (issue.getLineNumber() <= 0) {
+                issue.setLineNumber(classified.getLineNumber());
+            }
+        }
+    }
+
+    static String typeOf(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Pattern> type : TYPES.entrySet()) {
+            if (type.getValue().matcher(lower).find()) {
+                return type.getKey();
+            }
+        }
+        return GENERAL;
+    }
+
+    static IssueSeverity severityOf(String text, String type) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (CRITICAL_WORDS.matcher(lower).find()) {
+            return IssueSeverity.CRITICAL;
+        }
+        if (HIGH_WORDS.matcher(lower).find()) {
+            return IssueSeverity.HIGH;
+        }
+        if (LOW_WORDS.matcher(lower).find()) {
+            return IssueSeverity.LOW;
+        }
+        return switch (type) {
+            case "security", "concurrency", "bug" -> IssueSeverity.HIGH;
+            case "style", "naming", "documentation" -> IssueSeverity.LOW;
+            default -> IssueSeverity.MEDIUM;
+        };
+    }
+
+    // 0 when the text names no line, as for issues without one
+    static int lineOf(String text) {
+        Matcher line = LINE_REFERENCE.matcher(text);
+        return line.find() ? Integer.parseInt(line.group(1)) : 0;
+    }
+
+    private static String firstGroup(Matcher matcher) {
+        for (int i = 1; i <= matcher.groupCount(); i++) {
+            if (matcher.group(i) != null) {
+                return matcher.group(i);
+            }
+        }
+        return "";
+    }
+
+    private static IssueSeverity severityOf(String marker) {
+        return switch (marker.toLowerCase(Locale.ROOT)) {
+            case "critical", "blocker" -> IssueSeverity.CRITICAL;
+            case "high", "major" -> IssueSeverity.HIGH;
+            case "low", "minor" -> IssueSeverity.LOW;
+            default -> IssueSeverity.MEDIUM;
+        };
+    }
+
+    // Each keyword matches at the start of a word, so "test" finds "tests" but not "latest"
+    private static Pattern keywords(String... words) {
+        StringBuilder regex = new StringBuilder("(?<![a-z0-9])(?:");
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) {
+                regex.append('|');
+            }
+            regex.append(Pattern.quote(words[i]));
+        }
+        return Pattern.compile(regex.append(')').toString());
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,473 @@
+package com.devflow.report.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered report files in report storage, indexed by file name. Callers derive the name
+ * from (reportId, content hash, format), so an existing file is by construction an up to date
+ * render and is served as is. Concurrent requests for the same artifact share one render, and
+ * the least recently used artifacts are deleted once storage exceeds its disk quota.
+ * <p>
+ * Files live two directory levels down, in one of 65536 shards picked by a hash of the file
+ * name, so no directory grows with the number of reports. Formats listed in
+ * {@code devflow.report.storage.compress-formats} are stored gzipped, under the file name
+ * plus {@code .gz}; PDFs already compress their content streams and are stored as is.
+ */
+@Service
+public class ReportArtifactCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReportArtifactCache.class);
+
+    static final String ARTIFACT_PREFIX = "report_";
+    static final String GZIP_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @Autowired
+    private ReportMetrics metrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reports.storage.path:/tmp/reports}")
+    private String reportsStoragePath;
+
+    @Value("${devflow.report.storage.cache-max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${devflow.report.storage.compress-formats:json,html}")
+    private Set<String> compressFormats;
+
+    // Access-ordered, so iteration starts at the least recently used artifact; guarded by this.
+    // The lock covers only the index: files are statted and deleted outside it, so a slow disk
+    // never holds up lookups of other artifacts
+    private final LinkedHashMap<String, Artifact> artifacts = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    public static String artifactName(String reportId, String contentHash, String extension) {
+        return ARTIFACT_PREFIX + reportId.replaceAll("[^a-zA-Z0-9]", "_") + "_" + contentHash + "." + extension;
+    }
+
+    /**
+     * The report an artifact name belongs to, or empty for names not made by {@link #artifactName}.
+     */
+    public static Optional<String> reportIdOf(String fileName) {
+        int dot = fileName.indexOf('.');
+        int hashStart = dot > 0 ? fileName.lastIndexOf('_', dot) : -1;
+        if (!fileName.startsWith(ARTIFACT_PREFIX) || hashStart <= ARTIFACT_PREFIX.length()) {
+            return Optional.empty();
+        }
+        return Optional.of(fileName.substring(ARTIFACT_PREFIX.length(), hashStart));
+    }
+
+    /**
+     * Indexes the artifacts left by earlier runs, oldest first, so they are served instead of
+     * re-rendered and still count against the quota. Renders interrupted by a shutdown are
+     * deleted, and files from the flat layout are moved into their shards.
+     */
+    @PostConstruct
+    public void loadExisting() throws IOException {
+        registerGauges();
+
+        Path directory = storageDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Artifact> found = new ArrayList<>();
+        int migrated = 0;
+        try (Stream<Path> walk = Files.walk(directory, 3)) {
+            for (Path file : walk.filter(Files::isRegularFile).toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".") && name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.startsWith(ARTIFACT_PREFIX)) {
+                    Path sharded = shardPath(logicalName(name), name);
+                    if (!file.equals(sharded)) {
+                        Files.createDirectories(sharded.getParent());
+                        Files.move(file, sharded, StandardCopyOption.REPLACE_EXISTING);
+                        migrated++;
+                    }
+                    found.add(new Artifact(sharded, size(sharded), lastModified(sharded), null));
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(Artifact::getCreatedAtMillis));
+
+        List<Artifact> evicted;
+        synchronized (this) {
+            found.forEach(this::register);
+            evicted = evictOverBudget();
+        }
+        delete(evicted);
+        logger.info("Indexed {} cached report artifacts ({} bytes, {} moved into shards)",
+                getArtifactCount(), getTotalBytes(), migrated);
+    }
+
+    public Optional<String> lookup(String fileName) {
+        return getArtifact(fileName).map(Artifact::getFileName);
+    }
+
+    /**
+     * The indexed artifact with this name. Only names in the index resolve, so a caller cannot
+     * reach other files in report storage.
+     */
+    public Optional<Artifact> getArtifact(String fileName) {
+        Artifact artifact;
+        synchronized (this) {
+            // get, not containsKey: only a get moves the entry to the most recently used end
+            artifact = artifacts.get(fileName);
+        }
+        if (artifact == null) {
+            return Optional.empty();
+        }
+        if (!Files.exists(artifact.getPath())) {
+            // Deleted behind our back (manual cleanup); a newer render may have replaced the entry since
+            synchronized (this) {
+                if (artifacts.remove(fileName, artifact)) {
+                    totalBytes -= artifact.getSize();
+                }
+            }
+            return Optional.empty();
+        }
+        return Optional.of(artifact);
+    }
+
+    /**
+     * Returns the cached artifact or renders it. Only one caller renders a given artifact;
+     * the others wait for that render. The file appears under its final name only once it is
+     * complete.
+     */
+    public String getOrRender(String fileName, Renderer renderer) throws IOException {
+        Optional<String> cached = lookup(fileName);
+        if (cached.isPresent()) {
+            metrics.recordArtifactLookup("hit");
+            return cached.get();
+        }
+
+        CompletableFuture<String> render = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(fileName, render);
+        if (existing != null) {
+            metrics.recordArtifactLookup("joined");
+            return await(existing);
+        }
+
+        boolean compress = isCompressed(fileName);
+        Path target = shardPath(fileName, compress ? fileName + GZIP_SUFFIX : fileName);
+        Path temp = target.resolveSibling("." + fileName + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            // A render may have finished between the lookup and claiming the slot
+            if (lookup(fileName).isEmpty()) {
+                Files.createDirectories(target.getParent());
+                try (OutputStream out = open(temp, compress)) {
+                    renderer.render(out);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // Hashed now, while the file is still in the page cache
+                Artifact artifact = new Artifact(target, size(target), lastModified(target), hash(target));
+                metrics.recordArtifactLookup("miss");
+                metrics.recordArtifactSize(fileName.substring(fileName.lastIndexOf('.') + 1), artifact.getSize());
+
+                List<Artifact> evicted;
+                synchronized (this) {
+                    register(artifact);
+                    evicted = evictOverBudget();
+                }
+                delete(evicted);
+            }
+            render.complete(fileName);
+            return fileName;
+        } catch (IOException | RuntimeException e) {
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+            inFlight.remove(fileName, render);
+        }
+    }
+
+    /**
+     * Deletes the artifact and drops it from the index.
+     */
+    public boolean remove(String fileName) {
+        Artifact artifact;
+        synchronized (this) {
+            artifact = artifacts.remove(fileName);
+            if (artifact == null) {
+                return false;
+            }
+            totalBytes -= artifact.getSize();
+        }
+        try {
+            Files.deleteIfExists(artifact.getPath());
+        } catch (IOException e) {
+            logger.warn("Failed to delete report artifact {}", fileName, e);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes every rendered format and version of the report.
+     */
+    public int removeReport(String reportId) {
+        List<String> names;
+        synchronized (this) {
+            names = artifacts.keySet().stream()
+                    .filter(name -> reportIdOf(name).filter(reportId::equals).isPresent())
+                    .toList();
+        }
+        names.forEach(this::remove);
+        return names.size();
+    }
+
+    /**
+     * Copy of the index, least recently used first, for sweeping. Does not count as access.
+     */
+    public synchronized List<Artifact> snapshot() {
+        return List.copyOf(artifacts.values());
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getArtifactCount() {
+        return artifacts.size();
+    }
+
+    // Storage as indexed here, plus what the volume itself has left
+    private void registerGauges() {
+        Gauge.builder("devflow.report.storage.used", this, ReportArtifactCache::getTotalBytes)
+                .baseUnit("bytes")
+                .description("Bytes of rendered reports in report storage")
+                .register(meterRegistry);
+        Gauge.builder("devflow.report.storage.quota", this, cache -> cache.maxBytes)
+                .baseUnit("bytes")
+                .description("Bytes report storage is kept under")
+                .register(meterRegistry);
+        Gauge.builder("devflow.report.storage.artifacts", this, ReportArtifactCache::getArtifactCount)
+                .description("Rendered reports in report storage")
+                .register(meterRegistry);
+        Gauge.builder("devflow.report.storage.free", this, cache -> cache.storageDirectory().toFile().getUsableSpace())
+                .baseUnit("bytes")
+                .description("Usable bytes left on the report storage volume")
+                .register(meterRegistry);
+    }
+
+    private boolean isCompressed(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+        return compressFormats.contains(extension);
+    }
+
+    private static OutputStream open(Path file, boolean compress) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+        return compress ? new GZIPOutputStream(out, 8192) : out;
+    }
+
+    private void register(Artifact artifact) {
+        Artifact previous = artifacts.put(artifact.getFileName(), artifact);
+        totalBytes += artifact.getSize() - (previous != null ? previous.getSize() : 0L);
+    }
+
+    // Drops least recently used artifacts from the index until it fits the quota; the caller
+    // holds the lock and deletes the returned files once it has released it
+    private List<Artifact> evictOverBudget() {
+        List<Artifact> evicted = new ArrayList<>();
+        Iterator<Artifact> eldest = artifacts.values().iterator();
+        // Always keep the newest artifact, even if it alone exceeds the quota
+        while (totalBytes > maxBytes && artifacts.size() > 1 && eldest.hasNext()) {
+            Artifact artifact = eldest.next();
+            totalBytes -= artifact.getSize();
+            eldest.remove();
+            evicted.add(artifact);
+        }
+        return evicted;
+    }
+
+    private void delete(List<Artifact> evicted) {
+        for (Artifact artifact : evicted) {
+            // A render of the same name started since would write the file we are about to delete
+            if (inFlight.containsKey(artifact.getFileName())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(artifact.getPath());
+                logger.debug("Evicted report artifact {} ({} bytes)", artifact.getFileName(), artifact.getSize());
+            } catch (IOException e) {
+                // Unindexed now; the next startup indexes it again and it counts against the quota then
+                logger.warn("Failed to evict report artifact {}", artifact.getFileName(), e);
+            }
+        }
+    }
+
+    private String await(CompletableFuture<String> render) throws IOException {
+        try {
+            return render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private Path storageDirectory() {
+        return Paths.get(reportsStoragePath);
+    }
+
+    // <storage>/ab/cd/<storedName>, where abcd starts the SHA-256 of the artifact name
+    private Path shardPath(String fileName, String storedName) {
+        byte[] digest = sha256().digest(fileName.getBytes(StandardCharsets.UTF_8));
+        HexFormat hex = HexFormat.of();
+        return storageDirectory()
+                .resolve(hex.toHexDigits(digest[0]))
+                .resolve(hex.toHexDigits(digest[1]))
+                .resolve(storedName);
+    }
+
+    private static String logicalName(String storedName) {
+        return storedName.endsWith(GZIP_SUFFIX)
+                ? storedName.substring(0, storedName.length() - GZIP_SUFFIX.length())
+                : storedName;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A rendered file in report storage. The content hash backs strong ETags; it is computed
+     * when the artifact is rendered, or on first use for artifacts indexed at startup.
+     */
+    public static final class Artifact {
+        private final Path path;
+        private final String fileName;
+        private final boolean compressed;
+        private final long size;
+        private final long createdAtMillis;
+        private volatile String contentHash;
+        private volatile long decodedSize = -1;
+
+        private Artifact(Path path, long size, long createdAtMillis, String contentHash) {
+            this.path = path;
+            this.fileName = logicalName(path.getFileName().toString());
+            this.compressed = path.getFileName().toString().endsWith(GZIP_SUFFIX);
+            this.size = size;
+            this.createdAtMillis = createdAtMillis;
+            this.contentHash = contentHash;
+        }
+
+        public String getFileName() { return fileName; }
+
+        public Path getPath() { return path; }
+
+        public boolean isCompressed() { return compressed; }
+
+        /** Bytes on disk. */
+        public long getSize() { return size; }
+
+        public long getCreatedAtMillis() { return createdAtMillis; }
+
+        /** Hash of the bytes on disk, which for a compressed artifact are the gzip stream. */
+        public String getContentHash() throws IOException {
+            String hash = contentHash;
+            if (hash == null) {
+                hash = hash(path);
+                contentHash = hash;
+            }
+            return hash;
+        }
+
+        /** Bytes once decompressed, from the gzip trailer. Reports stay well under its 4 GiB limit. */
+        public long getDecodedSize() throws IOException {
+            if (!compressed) {
+                return size;
+            }
+            long decoded = decodedSize;
+            if (decoded < 0) {
+                try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+                    file.seek(size - 4);
+                    decoded = Integer.toUnsignedLong(Integer.reverseBytes(file.readInt()));
+                }
+                decodedSize = decoded;
+            }
+            return decoded;
+        }
+    }
+}
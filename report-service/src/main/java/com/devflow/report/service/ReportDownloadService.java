@@ -0,0 +1,179 @@
+package com.devflow.report.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Serves rendered artifacts from report storage. An artifact never changes once written, so
+ * responses carry a strong ETag from its content hash and a matching If-None-Match is answered
+ * with 304 from the in-memory index, without reading the file. Bodies are handed to Tomcat's
+ * sendfile when the connector supports it, and a single byte range is honoured so large PDFs
+ * can be resumed. Artifacts stored gzipped go out as they are, with Content-Encoding: gzip,
+ * to every client that accepts it.
+ */
+@Service
+public class ReportDownloadService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportDownloadService.class);
+
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // Below this a plain copy is cheaper than handing the file to the poller; Tomcat's DefaultServlet uses the same
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePrivate();
+
+    @Autowired
+    private ReportArtifactCache artifactCache;
+
+    /**
+     * Writes the artifact, or the requested part of it, to the response.
+     *
+     * @return false if there is no such artifact; the response is untouched
+     */
+    public boolean serve(String fileName, MediaType contentType,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ReportArtifactCache.Artifact> found = artifactCache.getArtifact(fileName);
+        if (found.isEmpty()) {
+            return false;
+        }
+
+        ReportArtifactCache.Artifact artifact = found.get();
+        // Clients that cannot take gzip get the stored artifact decompressed on the fly,
+        // which is a different representation and needs its own ETag
+        boolean decode = artifact.isCompressed() && !acceptsGzip(request);
+        String etag = "\"" + artifact.getContentHash() + (decode ? "-identity" : "") + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+        if (artifact.isCompressed()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // Sets the ETag, and answers 304 (or 412 for a failed If-Match) when the client is up to date
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return true;
+        }
+
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        if (decode) {
+            // Ranges would have to count decompressed bytes; clients this old get the whole file
+            response.setContentLengthLong(artifact.getDecodedSize());
+            if (!HttpMethod.HEAD.matches(request.getMethod())) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(artifact.getPath()), 8192)) {
+                    in.transferTo(response.getOutputStream());
+                }
+            }
+            return true;
+        }
+        if (artifact.isCompressed()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        long length = artifact.getSize();
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag)) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            // Multiple ranges are answered with the whole file, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return true;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            // Tomcat writes the file after the handler returns; nothing may be written to the body here
+            request.setAttribute(SENDFILE_FILENAME_ATTR, artifact.getPath().toRealPath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return true;
+        }
+
+        try (FileChannel channel = FileChannel.open(artifact.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = channel.transferTo(position, end + 1 - position, out);
+                if (transferred <= 0) {
+                    logger.warn("Report artifact {} ended at byte {} of {}", fileName, position, length);
+                    break;
+                }
+                position += transferred;
+            }
+        }
+        return true;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            if (name.equals("gzip") || name.equals("x-gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // If-Range names the representation the client already holds part of; any other ETag (or a date) means start over
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    // A malformed Range header is ignored rather than rejected
+    private static List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.ReportFormat;
+import com.devflow.report.model.ReportStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams many reports as one zip. Reports are read from a Mongo cursor and prepared on a
+ * shared worker pool, at most {@code devflow.report.export.max-in-flight} per export, and each
+ * goes into the zip as soon as it is ready. Entries therefore come out in completion order, and
+ * at most {@code max-in-flight} reports and renders are in memory at a time.
+ * <p>
+ * A report whose current content is already in the artifact cache is copied from storage;
+ * any other is rendered into memory and never stored, so a bulk export does not evict the
+ * artifacts interactive downloads rely on.
+ */
+@Service
+public class ReportExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportExportService.class);
+
+    static final String ERRORS_ENTRY = "export-errors.txt";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReportGenerationService reportGenerationService;
+
+    @Autowired
+    private ReportArtifactCache artifactCache;
+
+    @Value("${devflow.report.export.thread-pool-size:4}")
+    private int threadPoolSize;
+
+    @Value("${devflow.report.export.max-in-flight:8}")
+    private int maxInFlight;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = WorkerPools.fixed("report-export-", threadPoolSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        WorkerPools.stop(executor);
+    }
+
+    /**
+     * Writes a zip of the user's completed reports, optionally limited to one project and to
+     * reports created between {@code from} and {@code to} (inclusive days), to {@code out}.
+     * A report that fails to render is listed in {@value #ERRORS_ENTRY} instead of failing
+     * the whole export, since the response is already under way by then.
+     *
+     * @return the number of reports written
+     */
+    public int exportReports(String userId, String projectName, LocalDate from, LocalDate to,
+                             ReportFormat format, OutputStream out) throws IOException {
+        Query query = exportQuery(userId, projectName, from, to);
+        List<String> errors = new ArrayList<>();
+        int written = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        // PDFs are already compressed; deflating them again costs CPU for nothing
+        zip.setLevel(format == ReportFormat.PDF ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+
+        CompletionService<Rendered> renders = new ExecutorCompletionService<>(executor);
+        Set<Future<Rendered>> inFlight = new HashSet<>();
+        try (Stream<AnalysisReport> reports = mongoTemplate.stream(query, AnalysisReport.class)) {
+            Iterator<AnalysisReport> pending = reports.iterator();
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < maxInFlight && pending.hasNext()) {
+                    AnalysisReport report = pending.next();
+                    inFlight.add(renders.submit(() -> render(report, format)));
+                }
+
+                Future<Rendered> finished = renders.take();
+                inFlight.remove(finished);
+                try {
+                    writeEntry(zip, finished.get(), format);
+                    written++;
+                } catch (ExecutionException e) {
+                    logger.warn("Skipping report in export for user {}", userId, e.getCause());
+                    errors.add(e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } finally {
+            // Set when writing failed, typically because the client went away
+            inFlight.forEach(render -> render.cancel(true));
+        }
+
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+            zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        // Finishes the archive without closing the response stream
+        zip.finish();
+        zip.flush();
+
+        logger.info("Exported {} {} reports for user {} ({} failed)", written, format, userId, errors.size());
+        return written;
+    }
+
+    private Rendered render(AnalysisReport report, ReportFormat format) throws IOException {
+        try {
+            ReportRenderModel model = reportGenerationService.exportModelOf(report);
+            String artifactName = reportGenerationService.generateFileName(model, format);
+            if (artifactCache.lookup(artifactName).isPresent()) {
+                return new Rendered(report, model, artifactName, null);
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            reportGenerationService.writeReport(model, format, body);
+            return new Rendered(report, model, null, body.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("Report " + report.getId() + " (" + report.getFileName() + "): " + e.getMessage(), e);
+        }
+    }
+
+    private Query exportQuery(String userId, String projectName, LocalDate from, LocalDate to) {
+        Criteria criteria = Criteria.where("userId").is(userId).and("status").is(ReportStatus.COMPLETED);
+        if (projectName != null) {
+            criteria.and("projectName").is(projectName);
+        }
+        if (from != null || to != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (from != null) {
+                createdAt.gte(from.atStartOfDay());
+            }
+            if (to != null) {
+                createdAt.lt(to.plusDays(1).atStartOfDay());
+            }
+        }
+        return Query.query(criteria).with(Sort.by("createdAt"));
+    }
+
+    private void writeEntry(ZipOutputStream zip, Rendered rendered, ReportFormat format) throws IOException {
+        AnalysisReport report = rendered.report();
+        zip.putNextEntry(new ZipEntry(entryName(report, format)));
+
+        if (rendered.body() != null) {
+            zip.write(rendered.body());
+            zip.closeEntry();
+            return;
+        }
+
+        Optional<ReportArtifactCache.Artifact> artifact = artifactCache.getArtifact(rendered.artifactName());
+        if (artifact.isPresent()) {
+            ReportArtifactCache.Artifact stored = artifact.get();
+            try (InputStream in = stored.isCompressed()
+                    ? new GZIPInputStream(Files.newInputStream(stored.getPath()), 8192)
+                    : Files.newInputStream(stored.getPath())) {
+                in.transferTo(zip);
+            }
+        } else {
+            // Evicted between lookup and copy; render straight into the archive instead
+            reportGenerationService.writeReport(rendered.model(), format, zip);
+        }
+        zip.closeEntry();
+    }
+
+    // <project>/<file>_<reportId>.<ext>; the report ID keeps names unique
+    private static String entryName(AnalysisReport report, ReportFormat format) {
+        return safe(report.getProjectName()) + "/" + safe(report.getFileName()) + "_" + report.getId()
+                + "." + format.toString().toLowerCase();
+    }
+
+    private static String safe(String name) {
+        return name == null || name.isBlank() ? "unnamed" : name.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+
+    // Either the name of a stored artifact or the rendered bytes
+    private record Rendered(AnalysisReport report, ReportRenderModel model, String artifactName, byte[] body) {
+    }
+}
@@ -3,235 +3,548 @@ package com.devflow.report.service;
 import com.devflow.report.model.AnalysisReport;
 import com.devflow.report.model.CodeIssue;
 import com.devflow.report.model.ReportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
-import java.io.FileOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 @Service
 public class ReportGenerationService {
     private static final Logger logger = LoggerFactory.getLogger(ReportGenerationService.class);
 
-    @Value("${app.reports.storage.path:/tmp/reports}")
-    private String reportsStoragePath;
+    private static final int PDF_ROWS_PER_FLUSH = 100;
+    // Bump when the rendered layout changes, so cached artifacts are rendered again
+    private static final String RENDERER_VERSION = "4";
+    private static final int WRITER_BUFFER_SIZE = 8192;
+
+    private static final String HTML_HEAD = "<!DOCTYPE html><html><head>"
+            + "<meta charset=\"UTF-8\">"
+            + "<title>Code Quality Report</title>"
+            + "<style>"
+            + "body { font-family: Arial, sans-serif; margin: 40px; }"
+            + "h1 { color: #333; text-align: center; }"
+            + "h2 { color: #666; border-bottom: 2px solid #ddd; }"
+            + "table { width: 100%; border-collapse: collapse; margin: 20px 0; }"
+            + "th, td { border: 1px solid #ddd; padding: 12px; text-align: left; }"
+            + "th { background-color: #f2f2f2; }"
+            + ".severity-critical { color: #b71c1c; font-weight: bold; }"
+            + ".severity-high { color: #d32f2f; font-weight: bold; }"
+            + ".severity-medium { color: #f57c00; font-weight: bold; }"
+            + ".severity-low { color: #388e3c; }"
+            + "</style></head><body>";
+
+    // Parsed once per JVM and shared by every document
+    private static final FontProgram REGULAR_FONT = loadFont(StandardFonts.HELVETICA);
+    private static final FontProgram BOLD_FONT = loadFont(StandardFonts.HELVETICA_BOLD);
+    private static final Style TITLE_STYLE = new Style().setFontSize(20).setTextAlignment(TextAlignment.CENTER);
+    private static final Style HEADING_STYLE = new Style().setFontSize(16);
+
+    @Autowired
+    private ReportArtifactCache artifactCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReportMetrics metrics;
 
     @Value("${app.reports.base-url:http://localhost:8083/api/reports}")
     private String reportsBaseUrl;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Value("${devflow.report.render.json-compact:false}")
+    private boolean jsonCompact;
 
-    public String generateReport(AnalysisReport report, ReportFormat format) throws IOException {
-        ensureStorageDirectoryExists();
+    @Value("${devflow.report.render.model-cache-size:500}")
+    private long modelCacheSize;
+
+    @Value("${devflow.report.render.model-cache-ttl-minutes:10}")
+    private long modelCacheTtlMinutes;
+
+    @Value("${devflow.report.render.thread-pool-size:4}")
+    private int threadPoolSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // Both stay null outside Spring: models are then built per render and formats render in turn
+    private Cache<String, ReportRenderModel> models;
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        models = Caffeine.newBuilder()
+                .maximumSize(modelCacheSize)
+                .expireAfterAccess(Duration.ofMinutes(modelCacheTtlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, models, "report-render-models");
+
+        executor = WorkerPools.fixed("report-fanout-", threadPoolSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        WorkerPools.stop(executor);
+    }
 
-        String fileName = generateFileName(report, format);
-        String filePath = Paths.get(reportsStoragePath, fileName).toString();
+    /**
+     * Writes the report in the given format to {@code out} without touching report storage.
+     * Used to stream a report straight into an HTTP response.
+     */
+    public void writeReport(AnalysisReport report, ReportFormat format, OutputStream out) throws IOException {
+        writeReport(modelOf(report), format, out);
+    }
 
+    void writeReport(ReportRenderModel model, ReportFormat format, OutputStream out) throws IOException {
         switch (format) {
-            case PDF -> generatePdfReport(report, filePath);
-            case JSON -> generateJsonReport(report, filePath);
-            case HTML -> generateHtmlReport(report, filePath);
+            case PDF -> writePdf(model, out);
+            case JSON -> writeJson(model, out);
+            case HTML -> writeHtml(model, out);
             default -> throw new IllegalArgumentException("Unsupported format: " + format);
         }
+        out.flush();
+    }
 
-        return reportsBaseUrl + "/download/" + fileName;
+    /**
+     * Renders the report into storage and returns its download URL. Artifacts are named by
+     * report ID and content hash, so a report that has not changed since its last render is
+     * served from the artifact cache instead of being rendered again.
+     */
+    public String generateReport(AnalysisReport report, ReportFormat format) throws IOException {
+        return toDownloadUrl(renderArtifact(report, format));
+    }
+
+    /**
+     * Renders the report into storage in each of the formats and returns their download URLs,
+     * in the order given. The report is prepared once for all of them and the formats render
+     * in parallel, each through the artifact cache.
+     */
+    public Map<ReportFormat, String> generateReports(AnalysisReport report, Collection<ReportFormat> formats)
+            throws IOException {
+        Map<ReportFormat, String> urls = new LinkedHashMap<>();
+        renderArtifacts(report, formats).forEach((format, artifact) -> urls.put(format, toDownloadUrl(artifact)));
+        return urls;
+    }
+
+    /**
+     * Renders the report into storage unless its current content already is, and returns the
+     * artifact name.
+     */
+    public String renderArtifact(AnalysisReport report, ReportFormat format) throws IOException {
+        return renderArtifact(modelOf(report), format);
+    }
+
+    /**
+     * {@link #renderArtifact} for several formats at once. The first format renders on the
+     * calling thread while the others render on the render pool.
+     */
+    public Map<ReportFormat, String> renderArtifacts(AnalysisReport report, Collection<ReportFormat> formats)
+            throws IOException {
+        ReportRenderModel model = modelOf(report);
+        List<ReportFormat> pending = new ArrayList<>(new LinkedHashSet<>(formats));
+        if (pending.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<ReportFormat, Future<String>> renders = new EnumMap<>(ReportFormat.class);
+        if (executor != null) {
+            for (ReportFormat format : pending.subList(1, pending.size())) {
+                renders.put(format, executor.submit(() -> renderArtifact(model, format)));
+            }
+        }
+
+        Map<ReportFormat, String> artifacts = new LinkedHashMap<>();
+        try {
+            for (ReportFormat format : pending) {
+                Future<String> render = renders.get(format);
+                artifacts.put(format, render != null ? await(render) : renderArtifact(model, format));
+            }
+        } finally {
+            // After a failure, renders not started yet are dropped; running ones finish into the cache
+            renders.values().forEach(render -> render.cancel(false));
+        }
+        return artifacts;
+    }
+
+    private String renderArtifact(ReportRenderModel model, ReportFormat format) throws IOException {
+        return artifactCache.getOrRender(generateFileName(model, format), out -> {
+            logger.info("Rendering {} report for report ID: {}", format, model.getId());
+            long start = System.nanoTime();
+            writeReport(model, format, out);
+            metrics.recordRender(format, model.getIssueRows().size(), System.nanoTime() - start);
+        });
+    }
+
+    public Optional<String> findCachedReport(AnalysisReport report, ReportFormat format) {
+        return artifactCache.lookup(generateFileName(modelOf(report), format)).map(this::toDownloadUrl);
+    }
+
+    /**
+     * The prepared form of the report, shared by every render of its current content. A
+     * report that changed gets a new key, and its old model ages out.
+     */
+    ReportRenderModel modelOf(AnalysisReport report) {
+        if (models == null) {
+            return ReportRenderModel.of(report);
+        }
+        return models.get(ReportRenderModel.cacheKey(report), key -> ReportRenderModel.of(report));
+    }
+
+    /**
+     * The prepared form of the report for a bulk export: the shared model when one is cached,
+     * otherwise a fresh one that is not added, so an export does not push out the models of
+     * reports being viewed.
+     */
+    ReportRenderModel exportModelOf(AnalysisReport report) {
+        ReportRenderModel cached = models != null ? models.getIfPresent(ReportRenderModel.cacheKey(report)) : null;
+        return cached != null ? cached : ReportRenderModel.of(report);
+    }
+
+    private static String await(Future<String> render) throws IOException {
+        try {
+            return render.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering report", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Report render failed", e.getCause());
+        }
     }
 
-    private void generatePdfReport(AnalysisReport report, String filePath) throws IOException {
-        logger.info("Generating PDF report: {}", filePath);
+    // For PdfHeapProbe in benchmarks, which measures the heap of the streaming PDF writer alone
+    void writePdfReport(AnalysisReport report, OutputStream out) throws IOException {
+        writePdf(modelOf(report), out);
+    }
 
-        try (PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-             PdfDocument pdfDoc = new PdfDocument(writer);
+    /**
+     * Renders straight to {@code out}, which is left open. Pages are written as soon as they
+     * are laid out and the issues table is flushed every {@value #PDF_ROWS_PER_FLUSH} rows, so
+     * memory stays flat however many issues a report has.
+     */
+    private void writePdf(ReportRenderModel model, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+
+        try (PdfDocument pdfDoc = new PdfDocument(writer);
              Document document = new Document(pdfDoc)) {
 
+            // PdfFont objects belong to one document; only the parsed programs are shared
+            PdfFont regular = PdfFontFactory.createFont(REGULAR_FONT, PdfEncodings.WINANSI);
+            PdfFont bold = PdfFontFactory.createFont(BOLD_FONT, PdfEncodings.WINANSI);
+            document.setFont(regular);
+
             // Title
             document.add(new Paragraph("Code Quality Analysis Report")
-                    .setFontSize(20)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER));
+                    .addStyle(TITLE_STYLE)
+                    .setFont(bold));
 
             // Project Info
-            document.add(new Paragraph("Project: " + report.getProjectName()).setFontSize(14));
-            document.add(new Paragraph("File: " + report.getFileName()).setFontSize(12));
-            document.add(new Paragraph("Language: " + report.getLanguage()).setFontSize(12));
-            document.add(new Paragraph("Generated: " +
-                    report.getCompletedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                    .setFontSize(12));
+            document.add(new Paragraph("Project: " + model.getProjectNameText().raw()).setFontSize(14));
+            document.add(new Paragraph("File: " + model.getFileNameText().raw()).setFontSize(12));
+            document.add(new Paragraph("Language: " + model.getLanguageText().raw()).setFontSize(12));
+            document.add(new Paragraph("Generated: " + model.getGenerated().raw()).setFontSize(12));
 
             document.add(new Paragraph("\n"));
 
             // Quality Metrics
-            if (report.getQualityMetrics() != null) {
-                document.add(new Paragraph("Quality Metrics").setFontSize(16).setBold());
+            if (!model.getMetrics().isEmpty()) {
+                document.add(new Paragraph("Quality Metrics").addStyle(HEADING_STYLE).setFont(bold));
 
                 Table metricsTable = new Table(UnitValue.createPercentArray(2)).useAllAvailableWidth();
-                metricsTable.addHeaderCell(new Cell().add(new Paragraph("Metric").setBold()));
-                metricsTable.addHeaderCell(new Cell().add(new Paragraph("Value").setBold()));
-
-                var metrics = report.getQualityMetrics();
-                metricsTable.addCell("Lines of Code");
-                metricsTable.addCell(String.valueOf(metrics.getLinesOfCode()));
-                metricsTable.addCell("Cyclomatic Complexity");
-                metricsTable.addCell(String.valueOf(metrics.getCyclomaticComplexity()));
-                metricsTable.addCell("Maintainability Index");
-                metricsTable.addCell(String.format("%.2f", metrics.getMaintainabilityIndex()));
-                metricsTable.addCell("Code Smells");
-                metricsTable.addCell(String.valueOf(metrics.getCodeSmells()));
-                metricsTable.addCell("Overall Grade");
-                metricsTable.addCell(metrics.getOverallGrade());
+                metricsTable.addHeaderCell(headerCell("Metric", bold));
+                metricsTable.addHeaderCell(headerCell("Value", bold));
+
+                for (ReportRenderModel.MetricRow metric : model.getMetrics()) {
+                    metricsTable.addCell(metric.label());
+                    metricsTable.addCell(metric.value().raw());
+                }
 
                 document.add(metricsTable);
                 document.add(new Paragraph("\n"));
             }
 
             // Issues
-            if (report.getIssues() != null && !report.getIssues().isEmpty()) {
-                document.add(new Paragraph("Issues Found").setFontSize(16).setBold());
-
-                Table issuesTable = new Table(UnitValue.createPercentArray(4)).useAllAvailableWidth();
-                issuesTable.addHeaderCell(new Cell().add(new Paragraph("Severity").setBold()));
-                issuesTable.addHeaderCell(new Cell().add(new Paragraph("Type").setBold()));
-                issuesTable.addHeaderCell(new Cell().add(new Paragraph("Line").setBold()));
-                issuesTable.addHeaderCell(new Cell().add(new Paragraph("Description").setBold()));
-
-                for (CodeIssue issue : report.getIssues()) {
-                    issuesTable.addCell(issue.getSeverity().toString());
-                    issuesTable.addCell(issue.getType());
-                    issuesTable.addCell(String.valueOf(issue.getLineNumber()));
-                    issuesTable.addCell(issue.getDescription());
+            if (!model.getIssueRows().isEmpty()) {
+                document.add(new Paragraph("Issues Found").addStyle(HEADING_STYLE).setFont(bold));
+
+                // Large-table mode: rows are laid out and released on each flush()
+                Table issuesTable = new Table(UnitValue.createPercentArray(new float[]{1, 1.2f, 0.6f, 4, 3}), true).useAllAvailableWidth();
+                issuesTable.addHeaderCell(headerCell("Severity", bold));
+                issuesTable.addHeaderCell(headerCell("Type", bold));
+                issuesTable.addHeaderCell(headerCell("Line", bold));
+                issuesTable.addHeaderCell(headerCell("Description", bold));
+                issuesTable.addHeaderCell(headerCell("Suggestion", bold));
+                document.add(issuesTable);
+
+                int rows = 0;
+                for (ReportRenderModel.IssueRow issue : model.getIssueRows()) {
+                    issuesTable.addCell(issue.severity());
+                    issuesTable.addCell(issue.type().raw());
+                    issuesTable.addCell(issue.line());
+                    issuesTable.addCell(issue.description().raw());
+                    issuesTable.addCell(issue.suggestion().raw());
+
+                    if (++rows % PDF_ROWS_PER_FLUSH == 0) {
+                        issuesTable.flush();
+                    }
                 }
+                issuesTable.complete();
 
-                document.add(issuesTable);
                 document.add(new Paragraph("\n"));
             }
 
             // Suggestions
-            if (report.getSuggestions() != null && !report.getSuggestions().isEmpty()) {
-                document.add(new Paragraph("Suggestions").setFontSize(16).setBold());
+            if (!model.getSuggestionRows().isEmpty()) {
+                document.add(new Paragraph("Suggestions").addStyle(HEADING_STYLE).setFont(bold));
 
-                for (int i = 0; i < report.getSuggestions().size(); i++) {
-                    document.add(new Paragraph((i + 1) + ". " + report.getSuggestions().get(i)));
+                List<ReportRenderModel.Text> suggestions = model.getSuggestionRows();
+                for (int i = 0; i < suggestions.size(); i++) {
+                    document.add(new Paragraph((i + 1) + ". " + suggestions.get(i).raw()));
                 }
             }
         }
-
-        logger.info("PDF report generated successfully: {}", filePath);
-    }
-
-    private void generateJsonReport(AnalysisReport report, String filePath) throws IOException {
-        logger.info("Generating JSON report: {}", filePath);
-
-        objectMapper.writerWithDefaultPrettyPrinter()
-                .writeValue(Paths.get(filePath).toFile(), report);
-
-        logger.info("JSON report generated successfully: {}", filePath);
     }
 
-    private void generateHtmlReport(AnalysisReport report, String filePath) throws IOException {
-        logger.info("Generating HTML report: {}", filePath);
+    /**
+     * Writes the page straight to {@code out}, which is left open. Values were escaped when the
+     * model was built; only the writer's buffers are held here, however many issues a report has.
+     */
+    private void writeHtml(ReportRenderModel model, OutputStream out) throws IOException {
+        Writer html = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITER_BUFFER_SIZE);
+        html.write(HTML_HEAD);
 
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head>");
-        html.append("<title>Code Quality Report</title>");
-        html.append("<style>");
-        html.append("body { font-family: Arial, sans-serif; margin: 40px; }");
-        html.append("h1 { color: #333; text-align: center; }");
-        html.append("h2 { color: #666; border-bottom: 2px solid #ddd; }");
-        html.append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }");
-        html.append("th, td { border: 1px solid #ddd; padding: 12px; text-align: left; }");
-        html.append("th { background-color: #f2f2f2; }");
-        html.append(".severity-high { color: #d32f2f; font-weight: bold; }");
-        html.append(".severity-medium { color: #f57c00; font-weight: bold; }");
-        html.append(".severity-low { color: #388e3c; }");
-        html.append("</style></head><body>");
-
-        html.append("<h1>Code Quality Analysis Report</h1>");
-        html.append("<p><strong>Project:</strong> ").append(report.getProjectName()).append("</p>");
-        html.append("<p><strong>File:</strong> ").append(report.getFileName()).append("</p>");
-        html.append("<p><strong>Language:</strong> ").append(report.getLanguage()).append("</p>");
-        html.append("<p><strong>Generated:</strong> ").append(
-                        report.getCompletedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                .append("</p>");
+        html.write("<h1>Code Quality Analysis Report</h1>");
+        writeHtmlField(html, "Project", model.getProjectNameText());
+        writeHtmlField(html, "File", model.getFileNameText());
+        writeHtmlField(html, "Language", model.getLanguageText());
+        writeHtmlField(html, "Generated", model.getGenerated());
 
         // Quality Metrics
-        if (report.getQualityMetrics() != null) {
-            html.append("<h2>Quality Metrics</h2>");
-            html.append("<table>");
-            html.append("<tr><th>Metric</th><th>Value</th></tr>");
-
-            var metrics = report.getQualityMetrics();
-            html.append("<tr><td>Lines of Code</td><td>").append(metrics.getLinesOfCode()).append("</td></tr>");
-            html.append("<tr><td>Cyclomatic Complexity</td><td>").append(metrics.getCyclomaticComplexity()).append("</td></tr>");
-            html.append("<tr><td>Maintainability Index</td><td>").append(String.format("%.2f", metrics.getMaintainabilityIndex())).append("</td></tr>");
-            html.append("<tr><td>Code Smells</td><td>").append(metrics.getCodeSmells()).append("</td></tr>");
-            html.append("<tr><td>Overall Grade</td><td>").append(metrics.getOverallGrade()).append("</td></tr>");
-            html.append("</table>");
+        if (!model.getMetrics().isEmpty()) {
+            html.write("<h2>Quality Metrics</h2>");
+            html.write("<table>");
+            html.write("<tr><th>Metric</th><th>Value</th></tr>");
+            for (ReportRenderModel.MetricRow metric : model.getMetrics()) {
+                html.write("<tr><td>");
+                html.write(metric.label());
+                html.write("</td><td>");
+                html.write(metric.value().html());
+                html.write("</td></tr>");
+            }
+            html.write("</table>");
         }
 
         // Issues
-        if (report.getIssues() != null && !report.getIssues().isEmpty()) {
-            html.append("<h2>Issues Found</h2>");
-            html.append("<table>");
-            html.append("<tr><th>Severity</th><th>Type</th><th>Line</th><th>Description</th></tr>");
-
-            for (CodeIssue issue : report.getIssues()) {
-                String severityClass = "severity-" + issue.getSeverity().toString().toLowerCase();
-                html.append("<tr>");
-                html.append("<td class=\"").append(severityClass).append("\">").append(issue.getSeverity()).append("</td>");
-                html.append("<td>").append(issue.getType()).append("</td>");
-                html.append("<td>").append(issue.getLineNumber()).append("</td>");
-                html.append("<td>").append(issue.getDescription()).append("</td>");
-                html.append("</tr>");
+        if (!model.getIssueRows().isEmpty()) {
+            html.write("<h2>Issues Found</h2>");
+            html.write("<table>");
+            html.write("<tr><th>Severity</th><th>Type</th><th>Line</th><th>Description</th><th>Suggestion</th></tr>");
+
+            for (ReportRenderModel.IssueRow issue : model.getIssueRows()) {
+                html.write("<tr><td class=\"");
+                html.write(issue.severityClass());
+                html.write("\">");
+                html.write(issue.severity());
+                html.write("</td><td>");
+                html.write(issue.type().html());
+                html.write("</td><td>");
+                html.write(issue.line());
+                html.write("</td><td>");
+                html.write(issue.description().html());
+                html.write("</td><td>");
+                html.write(issue.suggestion().html());
+                html.write("</td></tr>");
             }
-            html.append("</table>");
+            html.write("</table>");
         }
 
         // Suggestions
-        if (report.getSuggestions() != null && !report.getSuggestions().isEmpty()) {
-            html.append("<h2>Suggestions</h2>");
-            html.append("<ol>");
-            for (String suggestion : report.getSuggestions()) {
-                html.append("<li>").append(suggestion).append("</li>");
+        if (!model.getSuggestionRows().isEmpty()) {
+            html.write("<h2>Suggestions</h2>");
+            html.write("<ol>");
+            for (ReportRenderModel.Text suggestion : model.getSuggestionRows()) {
+                html.write("<li>");
+                html.write(suggestion.html());
+                html.write("</li>");
             }
-            html.append("</ol>");
+            html.write("</ol>");
         }
 
-        html.append("</body></html>");
+        html.write("</body></html>");
+        // Flush, not close: the caller owns the stream
+        html.flush();
+    }
+
+    /**
+     * Writes the report with Jackson's streaming generator to {@code out}, which is left open.
+     * Issues are serialized one at a time and nothing is buffered beyond the generator's own
+     * buffer. Only the report's own fields are written, in their stored order; reportUrl,
+     * format and updatedAt describe the last render, not the report.
+     */
+    private void writeJson(ReportRenderModel model, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!jsonCompact) {
+                json.useDefaultPrettyPrinter();
+            }
 
-        Files.write(Paths.get(filePath), html.toString().getBytes());
-        logger.info("HTML report generated successfully: {}", filePath);
+            json.writeStartObject();
+            json.writeStringField("id", model.getId());
+            json.writeStringField("userId", model.getUserId());
+            json.writeStringField("projectName", model.getProjectName());
+            json.writeStringField("fileName", model.getFileName());
+            json.writeStringField("language", model.getLanguage());
+            json.writeObjectField("status", model.getStatus());
+            json.writeObjectField("createdAt", model.getCreatedAt());
+            json.writeObjectField("completedAt", model.getCompletedAt());
+            json.writeObjectField("qualityMetrics", model.getQualityMetrics());
+
+            json.writeFieldName("issues");
+            if (model.getIssues() == null) {
+                json.writeNull();
+            } else {
+                json.writeStartArray();
+                for (CodeIssue issue : model.getIssues()) {
+                    json.writeObject(issue);
+                }
+                json.writeEndArray();
+            }
+
+            json.writeFieldName("suggestions");
+            if (model.getSuggestions() == null) {
+                json.writeNull();
+            } else {
+                json.writeStartArray();
+                for (String suggestion : model.getSuggestions()) {
+                    json.writeString(suggestion);
+                }
+                json.writeEndArray();
+            }
+
+            json.writeObjectField("rawAnalysisData", model.getRawAnalysisData());
+            json.writeEndObject();
+        }
     }
 
-    private String generateFileName(AnalysisReport report, ReportFormat format) {
-        String timestamp = report.getCompletedAt().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String extension = format.toString().toLowerCase();
-        return String.format("report_%s_%s_%s.%s",
-                report.getUserId(),
-                report.getProjectName().replaceAll("[^a-zA-Z0-9]", "_"),
-                timestamp,
-                extension);
+    private static void writeHtmlField(Writer html, String label, ReportRenderModel.Text value) throws IOException {
+        html.write("<p><strong>");
+        html.write(label);
+        html.write(":</strong> ");
+        html.write(value.html());
+        html.write("</p>");
     }
 
-    private void ensureStorageDirectoryExists() throws IOException {
-        Path directory = Paths.get(reportsStoragePath);
-        if (!Files.exists(directory)) {
-            Files.createDirectories(directory);
-            logger.info("Created reports storage directory: {}", reportsStoragePath);
+    private static Cell headerCell(String title, PdfFont bold) {
+        return new Cell().add(new Paragraph(title).setFont(bold));
+    }
+
+    private static FontProgram loadFont(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load PDF font " + name, e);
+        }
+    }
+
+    private String toDownloadUrl(String fileName) {
+        return reportsBaseUrl + "/download/" + fileName;
+    }
+
+    String generateFileName(ReportRenderModel model, ReportFormat format) {
+        return ReportArtifactCache.artifactName(model.getId(), contentHash(model), format.toString().toLowerCase());
+    }
+
+    /**
+     * Hash of everything a rendered report shows, computed once per model and shared by its
+     * formats. Bookkeeping fields such as updatedAt and reportUrl are left out: they change
+     * whenever a render is recorded on the report.
+     */
+    String contentHash(ReportRenderModel model) {
+        String hash = model.getContentHash();
+        if (hash != null) {
+            return hash;
+        }
+
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("renderer", RENDERER_VERSION);
+        content.put("jsonCompact", jsonCompact);
+        content.put("userId", model.getUserId());
+        content.put("projectName", model.getProjectName());
+        content.put("fileName", model.getFileName());
+        content.put("language", model.getLanguage());
+        content.put("status", model.getStatus());
+        content.put("qualityMetrics", model.getQualityMetrics());
+        content.put("issues", model.getIssues());
+        content.put("suggestions", model.getSuggestions());
+        content.put("rawAnalysisData", model.getRawAnalysisData());
+        content.put("createdAt", model.getCreatedAt());
+        content.put("completedAt", model.getCompletedAt());
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(content));
+            hash = HexFormat.of().formatHex(digest, 0, 8);
+            model.setContentHash(hash);
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Report content is not serializable: " + model.getId(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package com.devflow.report.service;
+
+import com.devflow.report.config.RabbitMQConfig;
+import com.devflow.report.model.ReportFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The report pipeline's own meters, next to what Boot records for HTTP, the JVM, Mongo
+ * commands and repository methods: how far ingest lags behind code-analysis-service and how
+ * long a batch takes to apply, and how long renders take per format and report size. Storage
+ * and the artifact cache register their meters themselves.
+ * <p>
+ * Timers publish histograms, so percentiles can be aggregated across replicas in Prometheus.
+ */
+@Service
+public class ReportMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ReportMetrics.class);
+
+    static final String INGEST_LAG = "devflow.report.ingest.lag";
+    static final String INGEST_PROCESSING = "devflow.report.ingest.processing";
+    static final String INGEST_MESSAGES = "devflow.report.ingest.messages";
+    static final String INGEST_BACKLOG = "devflow.report.ingest.backlog";
+    static final String RENDER = "devflow.report.render";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    // Not a number until the broker has answered once
+    private final AtomicLong backlog = new AtomicLong(-1);
+    private final AtomicLong consumers = new AtomicLong(-1);
+
+    private Timer ingestLag;
+    private Timer ingestProcessing;
+    private Counter appliedMessages;
+    private Counter deadLetteredMessages;
+
+    @PostConstruct
+    public void start() {
+        ingestLag = Timer.builder(INGEST_LAG)
+                .description("Time analysis results waited between being published and being applied")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+        ingestProcessing = Timer.builder(INGEST_PROCESSING)
+                .description("Time to apply one batch of analysis results")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        appliedMessages = Counter.builder(INGEST_MESSAGES).tag("outcome", "applied")
+                .description("Analysis results read from " + RabbitMQConfig.ANALYSIS_RESULTS_QUEUE)
+                .register(meterRegistry);
+        deadLetteredMessages = Counter.builder(INGEST_MESSAGES).tag("outcome", "dead_lettered")
+                .description("Analysis results read from " + RabbitMQConfig.ANALYSIS_RESULTS_QUEUE)
+                .register(meterRegistry);
+
+        Gauge.builder(INGEST_BACKLOG, backlog, ReportMetrics::valueOrNaN)
+                .tag("queue", RabbitMQConfig.ANALYSIS_RESULTS_QUEUE)
+                .description("Messages ready in the queue, not yet delivered to any consumer")
+                .register(meterRegistry);
+        Gauge.builder("devflow.report.ingest.consumers", consumers, ReportMetrics::valueOrNaN)
+                .tag("queue", RabbitMQConfig.ANALYSIS_RESULTS_QUEUE)
+                .description("Consumers on the queue across all replicas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the queue depth from the broker. Polled rather than read on scrape, so a slow or
+     * unreachable broker never stalls the Prometheus endpoint.
+     */
+    @Scheduled(fixedDelayString = "${devflow.report.metrics.backlog-poll-ms:15000}")
+    public void pollBacklog() {
+        try {
+            QueueInformation queue = amqpAdmin.getQueueInfo(RabbitMQConfig.ANALYSIS_RESULTS_QUEUE);
+            if (queue != null) {
+                backlog.set(queue.getMessageCount());
+                consumers.set(queue.getConsumerCount());
+            }
+        } catch (AmqpException e) {
+            logger.debug("Could not read depth of {}: {}", RabbitMQConfig.ANALYSIS_RESULTS_QUEUE, e.getMessage());
+        }
+    }
+
+    public void recordIngestLag(Duration lag) {
+        // Clock skew between hosts can make a fresh message look published in the future
+        ingestLag.record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    public void recordIngestBatch(int applied, int deadLettered, long nanos) {
+        ingestProcessing.record(nanos, TimeUnit.NANOSECONDS);
+        appliedMessages.increment(applied);
+        deadLetteredMessages.increment(deadLettered);
+    }
+
+    /**
+     * Records one render into report storage. Reports are bucketed by issue count, which
+     * drives the size of the issues table, so a slow bucket points at layout rather than I/O.
+     */
+    public void recordRender(ReportFormat format, int issueCount, long nanos) {
+        Timer.builder(RENDER)
+                .description("Time to render a report into storage")
+                .tag("format", format.name())
+                .tag("issues", issueBucket(issueCount))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the size of an artifact as stored, which for compressed formats is the gzip size.
+     */
+    public void recordArtifactSize(String extension, long bytes) {
+        DistributionSummary.builder("devflow.report.artifact.size")
+                .description("Bytes on disk of a rendered report")
+                .baseUnit("bytes")
+                .tag("format", extension.toUpperCase())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(256.0 * 1024 * 1024)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    public void recordArtifactLookup(String result) {
+        meterRegistry.counter("devflow.report.artifact.requests", "result", result).increment();
+    }
+
+    private static double valueOrNaN(AtomicLong value) {
+        return value.get() < 0 ? Double.NaN : value.get();
+    }
+
+    static String issueBucket(int issueCount) {
+        if (issueCount == 0) return "0";
+        if (issueCount <= 10) return "1-10";
+        if (issueCount <= 100) return "11-100";
+        if (issueCount <= 1000) return "101-1000";
+        return "1001+";
+    }
+}
@@ -0,0 +1,171 @@
+package com.devflow.report.service;
+
+import com.devflow.report.config.RabbitMQConfig;
+import com.devflow.report.dto.CacheInvalidationMessage;
+import com.devflow.report.dto.ReportSummaryDto;
+import com.devflow.report.model.AnalysisReport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Local read-through cache for single reports, user summaries and user analytics, bounded in
+ * size and by time since load. Writes invalidate the entries they make stale, on this instance
+ * right away and on every other replica through a fanout exchange; the TTL bounds how stale an
+ * entry can get from anything else (retention, rollup repairs, a lost broadcast).
+ * <p>
+ * Cached values are shared between requests and must not be modified by callers. Misses are
+ * not cached, so a report is visible as soon as it is created.
+ */
+@Service
+public class ReportReadCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReportReadCache.class);
+
+    static final String REPORTS = "reports";
+    static final String SUMMARIES = "report-summaries";
+    static final String ANALYTICS = "user-analytics";
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${devflow.report.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devflow.report.cache.max-reports:10000}")
+    private long maxReports;
+
+    @Value("${devflow.report.cache.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${devflow.report.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${devflow.report.cache.broadcast:true}")
+    private boolean broadcast;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private Cache<String, AnalysisReport> reports;
+    private Cache<String, ReportSummaryDto> summaries;
+    private Cache<String, Map<String, Object>> analytics;
+
+    @PostConstruct
+    public void start() {
+        reports = register(REPORTS, newCache(maxReports));
+        summaries = register(SUMMARIES, newCache(maxUsers));
+        analytics = register(ANALYTICS, newCache(maxUsers));
+    }
+
+    private <V> Cache<String, V> newCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // cache.gets{result=hit|miss}, cache.evictions and cache.size per cache, plus the hit ratio itself
+    private <V> Cache<String, V> register(String name, Cache<String, V> cache) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("devflow.report.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Share of lookups answered from the local cache")
+                .register(meterRegistry);
+        return cache;
+    }
+
+    public Optional<AnalysisReport> getReport(String reportId, Function<String, Optional<AnalysisReport>> loader) {
+        if (!enabled) {
+            return loader.apply(reportId);
+        }
+        // A null result records no mapping, so unknown ids are looked up again next time
+        return Optional.ofNullable(reports.get(reportId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public ReportSummaryDto getSummary(String userId, Function<String, ReportSummaryDto> loader) {
+        return enabled ? summaries.get(userId, loader) : loader.apply(userId);
+    }
+
+    public Map<String, Object> getAnalytics(String userId, Function<String, Map<String, Object>> loader) {
+        return enabled ? analytics.get(userId, loader) : loader.apply(userId);
+    }
+
+    /**
+     * Drops a report and its user's summary and analytics, here and on the other replicas.
+     * Call after the write is in Mongo: a load still running for one of these keys finishes
+     * before the entry is dropped, so it cannot put back what the write replaced.
+     */
+    public void invalidateReport(String reportId, String userId) {
+        invalidate(Set.of(reportId), Set.of(), userId != null ? Set.of(userId) : Set.of());
+    }
+
+    public void invalidate(Collection<String> reportIds, Collection<Long> analysisIds, Collection<String> userIds) {
+        if (reportIds.isEmpty() && analysisIds.isEmpty() && userIds.isEmpty()) {
+            return;
+        }
+        evict(reportIds, analysisIds, userIds);
+
+        if (broadcast) {
+            CacheInvalidationMessage message = new CacheInvalidationMessage(instanceId,
+                    new HashSet<>(reportIds), new HashSet<>(analysisIds), new HashSet<>(userIds));
+            try {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.REPORT_CACHE_EXCHANGE, "", message);
+            } catch (AmqpException e) {
+                // The write itself succeeded; other replicas catch up when their entries expire
+                logger.warn("Failed to broadcast cache invalidation, replicas may serve stale reads for up to {}s",
+                        ttlSeconds, e);
+            }
+        }
+    }
+
+    /**
+     * Applies an invalidation broadcast by any replica, ignoring this instance's own.
+     */
+    public void applyInvalidation(CacheInvalidationMessage message) {
+        if (instanceId.equals(message.getOrigin())) {
+            return;
+        }
+        evict(orEmpty(message.getReportIds()), orEmpty(message.getAnalysisIds()), orEmpty(message.getUserIds()));
+    }
+
+    private void evict(Collection<String> reportIds, Collection<Long> analysisIds, Collection<String> userIds) {
+        if (!enabled) {
+            return;
+        }
+        reports.invalidateAll(reportIds);
+        if (!analysisIds.isEmpty()) {
+            // Reports completed by analysis id are cached under their report id, so find them by value
+            reports.asMap().values().removeIf(report -> analysisIds.contains(report.getAnalysisId()));
+        }
+        summaries.invalidateAll(userIds);
+        analytics.invalidateAll(userIds);
+        logger.debug("Invalidated cached reads for {} reports, {} analyses and {} users",
+                reportIds.size(), analysisIds.size(), userIds.size());
+    }
+
+    private static <T> Collection<T> orEmpty(Collection<T> values) {
+        return values != null ? values : Set.of();
+    }
+}
@@ -0,0 +1,217 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.CodeQualityMetrics;
+import com.devflow.report.model.IssueSeverity;
+import com.devflow.report.model.ReportStatus;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Everything the PDF, HTML and JSON renderers show of one report, prepared once: metrics
+ * formatted, strings escaped for HTML, issues sorted by severity and line. Renders of any
+ * format read it concurrently and never go back to the report.
+ * <p>
+ * JSON keeps the stored issue and suggestion order, so it is built from the stored values;
+ * those are the same values the content hash covers.
+ */
+final class ReportRenderModel {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Most severe first, then by line; issues without a severity or line go last
+    private static final Comparator<CodeIssue> ISSUE_ORDER = Comparator
+            .comparing(CodeIssue::getSeverity, Comparator.nullsLast(Comparator.<IssueSeverity>reverseOrder()))
+            .thenComparingInt(issue -> issue.getLineNumber() > 0 ? issue.getLineNumber() : Integer.MAX_VALUE);
+
+    /** A value as plain text, for PDF, and escaped for HTML. */
+    record Text(String raw, String html) {
+        static Text of(Object value) {
+            String raw = value != null ? value.toString() : "";
+            return new Text(raw, escape(raw));
+        }
+    }
+
+    record MetricRow(String label, Text value) {
+    }
+
+    record IssueRow(String severity, String severityClass, Text type, String line, Text description,
+                    Text suggestion) {
+    }
+
+    private final String id;
+    private final String userId;
+    private final ReportStatus status;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime completedAt;
+
+    private final Text projectNameText;
+    private final Text fileNameText;
+    private final Text languageText;
+    private final Text generated;
+    private final List<MetricRow> metrics;
+    private final List<IssueRow> issueRows;
+    private final List<Text> suggestionRows;
+
+    // As stored, for JSON and the content hash
+    private final String projectName;
+    private final String fileName;
+    private final String language;
+    private final CodeQualityMetrics qualityMetrics;
+    private final List<CodeIssue> issues;
+    private final List<String> suggestions;
+    private final Map<String, Object> rawAnalysisData;
+
+    // Computed on first use; streaming a report never needs it
+    private volatile String contentHash;
+
+    private ReportRenderModel(AnalysisReport report) {
+        id = report.getId();
+        userId = report.getUserId();
+        status = report.getStatus();
+        createdAt = report.getCreatedAt();
+        completedAt = report.getCompletedAt();
+
+        projectName = report.getProjectName();
+        fileName = report.getFileName();
+        language = report.getLanguage();
+        projectNameText = Text.of(projectName);
+        fileNameText = Text.of(fileName);
+        languageText = Text.of(language);
+        generated = Text.of(completedAt != null ? completedAt.format(TIMESTAMP_FORMAT) : "-");
+
+        qualityMetrics = report.getQualityMetrics();
+        metrics = qualityMetrics != null ? metricRows(qualityMetrics) : List.of();
+
+        issues = report.getIssues() != null ? Collections.unmodifiableList(new ArrayList<>(report.getIssues())) : null;
+        issueRows = issues != null ? issueRows(issues) : List.of();
+
+        suggestions = report.getSuggestions() != null
+                ? Collections.unmodifiableList(new ArrayList<>(report.getSuggestions())) : null;
+        suggestionRows = suggestions != null ? suggestions.stream().map(Text::of).toList() : List.of();
+
+        rawAnalysisData = report.getRawAnalysisData();
+    }
+
+    static ReportRenderModel of(AnalysisReport report) {
+        return new ReportRenderModel(report);
+    }
+
+    /**
+     * What a model is cached under. Every write of a report's content sets its completedAt or
+     * status, so a report that changed gets a new model.
+     */
+    static String cacheKey(AnalysisReport report) {
+        return report.getId() + "|" + report.getStatus() + "|" + report.getCompletedAt();
+    }
+
+    private static List<MetricRow> metricRows(CodeQualityMetrics metrics) {
+        return List.of(
+                new MetricRow("Lines of Code", Text.of(metrics.getLinesOfCode())),
+                new MetricRow("Cyclomatic Complexity", Text.of(metrics.getCyclomaticComplexity())),
+                new MetricRow("Maintainability Index", Text.of(String.format("%.2f", metrics.getMaintainabilityIndex()))),
+                new MetricRow("Code Smells", Text.of(metrics.getCodeSmells())),
+                new MetricRow("Overall Grade", Text.of(metrics.getOverallGrade())));
+    }
+
+    private static List<IssueRow> issueRows(List<CodeIssue> issues) {
+        List<CodeIssue> sorted = new ArrayList<>(issues.size());
+        for (CodeIssue issue : issues) {
+            if (issue != null) {
+                sorted.add(issue);
+            }
+        }
+        sorted.sort(ISSUE_ORDER);
+
+        List<IssueRow> rows = new ArrayList<>(sorted.size());
+        for (CodeIssue issue : sorted) {
+            String severity = issue.getSeverity() != null ? issue.getSeverity().name() : "";
+            rows.add(new IssueRow(
+                    severity,
+                    "severity-" + severity.toLowerCase(Locale.ROOT),
+                    Text.of(issue.getType()),
+                    // Line 0 means the issue names no line
+                    issue.getLineNumber() > 0 ? Integer.toString(issue.getLineNumber()) : "-",
+                    Text.of(issue.getDescription()),
+                    Text.of(issue.getSuggestion())));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    // The value itself when nothing needs escaping, which is most values
+    static String escape(String raw) {
+        StringBuilder escaped = null;
+        int runStart = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            String entity = switch (raw.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(raw.length() + 16);
+                }
+                escaped.append(raw, runStart, i).append(entity);
+                runStart = i + 1;
+            }
+        }
+        return escaped == null ? raw : escaped.append(raw, runStart, raw.length()).toString();
+    }
+
+    String getId() { return id; }
+
+    String getUserId() { return userId; }
+
+    ReportStatus getStatus() { return status; }
+
+    LocalDateTime getCreatedAt() { return createdAt; }
+
+    LocalDateTime getCompletedAt() { return completedAt; }
+
+    Text getProjectNameText() { return projectNameText; }
+
+    Text getFileNameText() { return fileNameText; }
+
+    Text getLanguageText() { return languageText; }
+
+    Text getGenerated() { return generated; }
+
+    List<MetricRow> getMetrics() { return metrics; }
+
+    List<IssueRow> getIssueRows() { return issueRows; }
+
+    List<Text> getSuggestionRows() { return suggestionRows; }
+
+    String getProjectName() { return projectName; }
+
+    String getFileName() { return fileName; }
+
+    String getLanguage() { return language; }
+
+    CodeQualityMetrics getQualityMetrics() { return qualityMetrics; }
+
+    List<CodeIssue> getIssues() { return issues; }
+
+    List<String> getSuggestions() { return suggestions; }
+
+    Map<String, Object> getRawAnalysisData() { return rawAnalysisData; }
+
+    String getContentHash() { return contentHash; }
+
+    void setContentHash(String contentHash) {
+        this.contentHash = Objects.requireNonNull(contentHash);
+    }
+}
@@ -0,0 +1,373 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.RenderJob;
+import com.devflow.report.model.ReportFormat;
+import com.devflow.report.model.ReportStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders reports off the request thread. Each format has its own concurrency limit, so a
+ * burst of PDFs cannot occupy every worker; jobs over the limit wait in a per-format queue
+ * and are handed to the worker pool as running jobs of that format finish. The total number
+ * of waiting jobs is bounded by {@code devflow.report.async.queue-capacity}.
+ * <p>
+ * Jobs run on the instance that accepted them, which records their status in Mongo. Another
+ * instance, or this one after a restart, answers for a job from that record, and streams its
+ * events by polling it.
+ */
+@Service
+public class ReportRenderQueue {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRenderQueue.class);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${devflow.report.async.thread-pool-size:10}")
+    private int threadPoolSize;
+
+    @Value("${devflow.report.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${devflow.report.async.format-limits.pdf:4}")
+    private int pdfLimit;
+
+    @Value("${devflow.report.async.format-limits.html:8}")
+    private int htmlLimit;
+
+    @Value("${devflow.report.async.format-limits.json:8}")
+    private int jsonLimit;
+
+    @Value("${devflow.report.async.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    @Value("${devflow.report.async.event-timeout-ms:300000}")
+    private long eventTimeoutMillis;
+
+    private final Map<String, RenderJob> jobs = new ConcurrentHashMap<>();
+    // Queued or running job per report and format, so repeat requests join it
+    private final Map<String, RenderJob> activeJobs = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Jobs of other instances with subscribers here, and the status last sent for each
+    private final Map<String, ReportStatus> remoteJobs = new ConcurrentHashMap<>();
+    private final Map<ReportFormat, FormatLane> lanes = new EnumMap<>(ReportFormat.class);
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        // Admission is bounded by the lanes; the pool's queue only covers limits summing past its size
+        executor = WorkerPools.draining("report-render-", threadPoolSize, 30);
+
+        lanes.put(ReportFormat.PDF, new FormatLane(pdfLimit));
+        lanes.put(ReportFormat.HTML, new FormatLane(htmlLimit));
+        lanes.put(ReportFormat.JSON, new FormatLane(jsonLimit));
+
+        Gauge.builder("devflow.report.render.queue.waiting", waiting, AtomicInteger::get)
+                .description("Render jobs waiting for a slot of their format")
+                .register(meterRegistry);
+
+        logger.info("Report render queue started: {} workers, limits PDF={} HTML={} JSON={}, queue capacity {}",
+                threadPoolSize, pdfLimit, htmlLimit, jsonLimit, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        WorkerPools.stop(executor);
+
+        // Jobs still queued will never run; say so rather than leave them PENDING
+        for (RenderJob job : jobs.values()) {
+            if (!job.isFinished()) {
+                job.setFinishedAt(LocalDateTime.now());
+                job.setErrorMessage("Report service shut down before the render ran; submit it again");
+                job.setStatus(ReportStatus.FAILED);
+                record(job);
+                publish(job);
+            }
+        }
+    }
+
+    /**
+     * Accepts a render and returns immediately. A report whose current content is already
+     * rendered gets a job that is completed on return, and a render already queued or running
+     * for the same report and format is returned instead of starting another.
+     *
+     * @throws TaskRejectedException when the queue is full
+     */
+    public RenderJob submit(String reportId, ReportFormat format) {
+        RenderJob job = new RenderJob(UUID.randomUUID().toString(), reportId, format);
+
+        Optional<String> cachedUrl = reportService.findCachedReportUrl(reportId, format);
+        if (cachedUrl.isPresent()) {
+            LocalDateTime now = LocalDateTime.now();
+            job.setStartedAt(now);
+            job.setFinishedAt(now);
+            job.setReportUrl(cachedUrl.get());
+            job.setStatus(ReportStatus.COMPLETED);
+            jobs.put(job.getJobId(), job);
+            record(job);
+            return job;
+        }
+
+        RenderJob active = activeJobs.get(activeKey(reportId, format));
+        if (active != null) {
+            return active;
+        }
+        // Recorded before it can start, so this write never lands after the job's own updates
+        record(job);
+
+        FormatLane lane = lanes.get(format);
+        RenderJob accepted;
+        boolean start = false;
+        synchronized (lane) {
+            active = activeJobs.get(activeKey(reportId, format));
+            if (active != null) {
+                accepted = active;
+            } else if (lane.running < lane.limit) {
+                lane.running++;
+                start = true;
+                accepted = job;
+            } else if (waiting.incrementAndGet() <= queueCapacity) {
+                lane.pending.add(job);
+                accepted = job;
+                logger.debug("Queued render job {} ({} {} waiting)", job.getJobId(), lane.pending.size(), format);
+            } else {
+                waiting.decrementAndGet();
+                accepted = null;
+            }
+            if (accepted == job) {
+                jobs.put(job.getJobId(), job);
+                activeJobs.put(activeKey(reportId, format), job);
+            }
+        }
+
+        if (accepted != job) {
+            discard(job);
+        }
+        if (accepted == null) {
+            throw new TaskRejectedException("Render queue is full (" + queueCapacity + " waiting)");
+        }
+        if (start) {
+            executor.execute(() -> run(job, lane));
+        }
+        return accepted;
+    }
+
+    /**
+     * The job as this instance knows it, or else as last recorded by the instance running it.
+     */
+    public Optional<RenderJob> getJob(String jobId) {
+        RenderJob job = jobs.get(jobId);
+        if (job != null) {
+            return Optional.of(job);
+        }
+        return Optional.ofNullable(mongoTemplate.findById(jobId, RenderJob.class));
+    }
+
+    public long getJobRetentionMinutes() {
+        return jobRetentionMinutes;
+    }
+
+    /**
+     * Pushes the job's status as server-sent events until it finishes.
+     */
+    public SseEmitter subscribe(RenderJob job) {
+        SseEmitter emitter = new SseEmitter(eventTimeoutMillis);
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(job.getJobId(), id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+
+        Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        if (!jobs.containsKey(job.getJobId()) && !job.isFinished()) {
+            remoteJobs.putIfAbsent(job.getJobId(), job.getStatus());
+        }
+        // Covers a job that finished before the subscription was registered
+        send(emitter, job);
+        return emitter;
+    }
+
+    /**
+     * Forwards status changes of jobs running on other instances to subscribers here.
+     */
+    @Scheduled(fixedDelayString = "${devflow.report.async.remote-poll-ms:1000}")
+    public void pollRemoteJobs() {
+        for (Map.Entry<String, ReportStatus> watched : remoteJobs.entrySet()) {
+            String jobId = watched.getKey();
+            List<SseEmitter> emitters = subscribers.get(jobId);
+            if (emitters == null || emitters.isEmpty()) {
+                remoteJobs.remove(jobId);
+                subscribers.remove(jobId);
+                continue;
+            }
+            try {
+                RenderJob job = mongoTemplate.findById(jobId, RenderJob.class);
+                if (job == null) {
+                    // Expired; its record will not come back
+                    emitters.forEach(SseEmitter::complete);
+                    remoteJobs.remove(jobId);
+                    subscribers.remove(jobId);
+                } else if (job.getStatus() != watched.getValue()) {
+                    watched.setValue(job.getStatus());
+                    publish(job);
+                    if (job.isFinished()) {
+                        remoteJobs.remove(jobId);
+                    }
+                }
+            } catch (DataAccessException e) {
+                logger.debug("Could not poll render job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    private void run(RenderJob job, FormatLane lane) {
+        String reportUrl = null;
+        Exception failure = null;
+        try {
+            job.setStatus(ReportStatus.IN_PROGRESS);
+            job.setStartedAt(LocalDateTime.now());
+            record(job);
+            publish(job);
+
+            reportUrl = reportService.generateReport(job.getReportId(), job.getFormat());
+        } catch (Exception e) {
+            logger.error("Render job {} for report {} failed", job.getJobId(), job.getReportId(), e);
+            failure = e;
+        }
+
+        // finishedAt is set before the terminal status, which is what eviction keys on
+        job.setFinishedAt(LocalDateTime.now());
+        if (failure != null) {
+            job.setErrorMessage(failure.getMessage());
+            job.setStatus(ReportStatus.FAILED);
+        } else {
+            job.setReportUrl(reportUrl);
+            job.setStatus(ReportStatus.COMPLETED);
+        }
+        activeJobs.remove(activeKey(job.getReportId(), job.getFormat()), job);
+
+        try {
+            record(job);
+            publish(job);
+        } finally {
+            startNext(lane);
+        }
+    }
+
+    private void startNext(FormatLane lane) {
+        RenderJob next;
+        synchronized (lane) {
+            next = lane.pending.poll();
+            if (next == null) {
+                lane.running--;
+                return;
+            }
+            waiting.decrementAndGet();
+        }
+        // The finished job's slot passes straight to the next one
+        executor.execute(() -> run(next, lane));
+    }
+
+    // Best effort: a job whose record failed still runs and reports to subscribers here
+    private void record(RenderJob job) {
+        job.setExpireAt(LocalDateTime.now().plusMinutes(jobRetentionMinutes));
+        try {
+            mongoTemplate.save(job);
+        } catch (DataAccessException e) {
+            logger.warn("Could not record render job {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    // A job that joined an active one or was rejected; its record is of no use to anyone
+    private void discard(RenderJob job) {
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(job.getJobId())), RenderJob.class);
+        } catch (DataAccessException e) {
+            logger.debug("Could not remove render job {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    private void publish(RenderJob job) {
+        List<SseEmitter> emitters = subscribers.get(job.getJobId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, job));
+        }
+        if (job.isFinished()) {
+            subscribers.remove(job.getJobId());
+        }
+    }
+
+    private void send(SseEmitter emitter, RenderJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(job));
+            if (job.isFinished()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter's callbacks unregister it
+            emitter.completeWithError(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${devflow.report.async.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+        subscribers.keySet().removeIf(jobId -> !jobs.containsKey(jobId) && !remoteJobs.containsKey(jobId));
+    }
+
+    private static String activeKey(String reportId, ReportFormat format) {
+        return reportId + ":" + format;
+    }
+
+    private static final class FormatLane {
+        private final int limit;
+        private final Queue<RenderJob> pending = new ArrayDeque<>();
+        private int running;
+
+        private FormatLane(int limit) {
+            this.limit = Math.max(1, limit);
+        }
+    }
+}
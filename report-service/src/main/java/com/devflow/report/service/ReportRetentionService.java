@@ -0,0 +1,214 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.ReportStatus;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Expires old reports in small batches instead of one large delete. Each status has its own
+ * retention, counted from {@code createdAt}; failed and never-finished reports go sooner than
+ * completed ones. A due batch is first appended, whole, to a gzipped NDJSON file in the archive
+ * directory (restorable with {@code mongoimport}), and only then stamped with {@code expireAt}.
+ * The TTL index on that field lets Mongo's own background monitor delete the documents, and
+ * the storage sweeper later removes their rendered files.
+ *
+ * Rollups are left alone: they are small, and outlive the reports so long-range trends survive
+ * retention.
+ */
+@Service
+public class ReportRetentionService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRetentionService.class);
+
+    private static final String COLLECTION = "analysis_reports";
+    private static final DateTimeFormatter ARCHIVE_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final JsonWriterSettings ARCHIVE_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${devflow.report.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devflow.report.retention.completed-days:365}")
+    private int completedDays;
+
+    @Value("${devflow.report.retention.failed-days:30}")
+    private int failedDays;
+
+    // PENDING and IN_PROGRESS reports whose analysis never came back
+    @Value("${devflow.report.retention.unfinished-days:7}")
+    private int unfinishedDays;
+
+    @Value("${devflow.report.retention.archive-enabled:true}")
+    private boolean archiveEnabled;
+
+    // Outside the artifact storage directory, which is indexed on startup
+    @Value("${devflow.report.retention.archive-path:/tmp/reports-archive}")
+    private String archivePath;
+
+    @Value("${devflow.report.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${devflow.report.retention.max-per-run:20000}")
+    private int maxPerRun;
+
+    private final AtomicInteger archiveSequence = new AtomicInteger();
+
+    @Scheduled(cron = "${devflow.report.retention.cron:0 45 * * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            expireDueReports();
+        } catch (Exception e) {
+            logger.warn("Report retention run failed, the next run will continue", e);
+        }
+    }
+
+    /**
+     * Archives and expires up to {@code max-per-run} reports that are past their status's retention.
+     *
+     * @return the number of reports expired
+     */
+    public int expireDueReports() {
+        LocalDateTime now = LocalDateTime.now();
+        int budget = maxPerRun;
+        int expired = 0;
+
+        expired += expire(Criteria.where("status").is(ReportStatus.FAILED)
+                .and("createdAt").lt(now.minusDays(failedDays)), budget - expired);
+        expired += expire(Criteria.where("status").in(ReportStatus.PENDING, ReportStatus.IN_PROGRESS)
+                .and("createdAt").lt(now.minusDays(unfinishedDays)), budget - expired);
+        expired += expire(Criteria.where("status").is(ReportStatus.COMPLETED)
+                .and("createdAt").lt(now.minusDays(completedDays)), budget - expired);
+
+        if (expired > 0) {
+            logger.info("Expired {} reports past retention", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Archives and expires every report created before {@code cutoff}, whatever its status.
+     *
+     * @return the number of reports expired
+     */
+    public int expireReportsCreatedBefore(LocalDateTime cutoff) {
+        return expire(Criteria.where("createdAt").lt(cutoff), Integer.MAX_VALUE);
+    }
+
+    private int expire(Criteria due, int limit) {
+        int expired = 0;
+        while (expired < limit) {
+            // Already stamped reports wait for the TTL monitor; oldest first, so runs make steady progress
+            Query query = Query.query(new Criteria().andOperator(due, Criteria.where("expireAt").exists(false)))
+                    .with(Sort.by("createdAt"))
+                    .limit(Math.min(batchSize, limit - expired));
+
+            List<Object> ids = archiveEnabled ? archiveBatch(query) : findIds(query);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Due again, so a report that changed since it was read (say a PENDING one that
+            // completed) is left alone; at worst its archive copy is stale
+            UpdateResult stamped = mongoTemplate.updateMulti(
+                    Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                    new Update().set("expireAt", LocalDateTime.now()), AnalysisReport.class);
+            expired += (int) stamped.getModifiedCount();
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return expired;
+    }
+
+    private List<Object> findIds(Query query) {
+        query.fields().include("_id");
+        List<Object> ids = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, COLLECTION)) {
+            ids.add(document.get("_id"));
+        }
+        return ids;
+    }
+
+    /**
+     * Streams one batch of whole documents into a new archive file. The file is written under a
+     * temporary name and moved into place once complete, so an archive never holds half a batch.
+     *
+     * @return the ids of the archived documents
+     */
+    private List<Object> archiveBatch(Query query) {
+        LocalDateTime now = LocalDateTime.now();
+        Path directory = Paths.get(archivePath, String.valueOf(now.getYear()),
+                String.format("%02d", now.getMonthValue()));
+        String name = "reports-" + ARCHIVE_NAME.format(now) + "-" + archiveSequence.incrementAndGet() + ".ndjson.gz";
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(name + ".tmp");
+
+        List<Object> ids = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION);
+                 Writer out = new BufferedWriter(new OutputStreamWriter(
+                         new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8))) {
+                for (Document document : (Iterable<Document>) documents::iterator) {
+                    out.write(document.toJson(ARCHIVE_JSON));
+                    out.write('\n');
+                    ids.add(document.get("_id"));
+                }
+            }
+
+            if (ids.isEmpty()) {
+                Files.delete(temp);
+                return ids;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Best effort; the next run writes a new file
+            }
+            // Nothing is expired unless its archive is safely on disk
+            throw new IllegalStateException("Failed to archive reports to " + target, e);
+        }
+
+        logger.debug("Archived {} reports to {}", ids.size(), target);
+        return ids;
+    }
+}
@@ -0,0 +1,473 @@
+package com.devflow.report.service;
+
+import com.devflow.report.dto.RollupCheckResult;
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.CodeQualityMetrics;
+import com.devflow.report.model.IssueSeverity;
+import com.devflow.report.model.ReportRollup;
+import com.devflow.report.model.ReportStatus;
+import com.devflow.report.repository.ReportRollupRepository;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@code report_rollups} collection: per-user, per-language, per-day
+ * statistics of completed reports.
+ *
+ * Buckets are bumped with an atomic upsert as each report completes. Anything that cannot
+ * be expressed as an increment (a report completed twice, failed after completing, deleted)
+ * rebuilds the affected bucket from the raw reports instead. The backfill and the consistency
+ * checker use the same server-side pipeline, so all three paths agree on what a bucket holds.
+ */
+@Service
+public class ReportRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRollupService.class);
+
+    private static final String UNKNOWN_LANGUAGE = "unknown";
+    private static final String ISSUES_PREFIX = "issues";
+    private static final double TOLERANCE = 1e-6;
+    private static final int MAX_SAMPLES = 20;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReportRollupRepository rollupRepository;
+
+    @Value("${devflow.report.rollups.enabled:true}")
+    private boolean enabled;
+
+    // Zone that defines day boundaries; blank means the JVM default
+    @Value("${devflow.report.rollups.zone:}")
+    private String zone;
+
+    @Value("${devflow.report.rollups.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${devflow.report.rollups.check-days:31}")
+    private int checkDays;
+
+    @Value("${devflow.report.rollups.check-repair:true}")
+    private boolean checkRepair;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zoneId());
+    }
+
+    public List<ReportRollup> getUserRollupsSince(String userId, LocalDate fromDay) {
+        return rollupRepository.findByUserIdAndDayGreaterThanEqual(userId, fromDay.toString());
+    }
+
+    /**
+     * Adds a freshly completed report to its bucket.
+     */
+    public void recordCompletion(AnalysisReport report) {
+        if (!enabled || report.getUserId() == null || report.getCreatedAt() == null) {
+            return;
+        }
+
+        String language = languageOf(report);
+        String day = dayOf(report.getCreatedAt());
+
+        Update update = new Update()
+                .setOnInsert("userId", report.getUserId())
+                .setOnInsert("language", language)
+                .setOnInsert("day", day)
+                .inc("reportCount", 1)
+                .set("updatedAt", LocalDateTime.now());
+
+        CodeQualityMetrics metrics = report.getQualityMetrics();
+        if (metrics != null) {
+            double maintainability = metrics.getMaintainabilityIndex();
+            update.inc("qualityCount", 1)
+                    .inc("maintainabilitySum", maintainability)
+                    .min("maintainabilityMin", maintainability)
+                    .max("maintainabilityMax", maintainability);
+        }
+        countIssues(report.getIssues()).forEach((severity, count) ->
+                update.inc("issueCounts." + severity.name(), count));
+
+        String bucketId = ReportRollup.bucketId(report.getUserId(), language, day);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(bucketId)), update, ReportRollup.class);
+    }
+
+    /**
+     * Recomputes the bucket a report belongs to from the raw reports, for changes that cannot
+     * be applied as increments.
+     */
+    public void rebuildBucket(AnalysisReport report) {
+        if (!enabled || report.getUserId() == null || report.getCreatedAt() == null) {
+            return;
+        }
+
+        String language = languageOf(report);
+        LocalDate day = LocalDate.parse(dayOf(report.getCreatedAt()));
+        String bucketId = ReportRollup.bucketId(report.getUserId(), language, day.toString());
+
+        Document match = dayMatch(day);
+        match.append("userId", report.getUserId());
+        match.append("language", UNKNOWN_LANGUAGE.equals(language)
+                ? new Document("$in", Arrays.asList(null, UNKNOWN_LANGUAGE))
+                : language);
+
+        List<Document> rows = aggregate(rollupPipeline(match));
+        if (rows.isEmpty()) {
+            rollupRepository.deleteById(bucketId);
+        } else {
+            replaceBucket(rows.get(0));
+        }
+    }
+
+    /**
+     * Rebuilds rollups from the raw reports for the last {@code days} days ({@code 0} for the
+     * whole history). Runs as a single {@code $merge} aggregation inside Mongo.
+     */
+    @Async
+    public void backfill(int days) {
+        runBackfill(days);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (enabled && backfillOnStartup && rollupRepository.count() == 0) {
+            logger.info("Rollup collection is empty, backfilling from existing reports");
+            runBackfill(0);
+        }
+    }
+
+    /**
+     * Compares stored buckets of the last {@code days} days with a recomputation from the raw
+     * reports, one day at a time so memory stays bounded by a single day's buckets.
+     */
+    public RollupCheckResult verify(int days, boolean repair) {
+        LocalDate today = today();
+        LocalDate from = today.minusDays(Math.max(days, 1) - 1L);
+        RollupCheckResult result = new RollupCheckResult(from.toString());
+
+        for (LocalDate day = from; !day.isAfter(today); day = day.plusDays(1)) {
+            reconcileDay(day, repair, result);
+            result.setDaysChecked(result.getDaysChecked() + 1);
+        }
+
+        if (result.isConsistent()) {
+            logger.info("Rollup check from {}: {} buckets consistent", from, result.getBucketsChecked());
+        } else {
+            logger.warn("Rollup check from {}: {} missing, {} mismatched, {} orphaned, {} repaired (e.g. {})",
+                    from, result.getMissing(), result.getMismatched(), result.getOrphaned(),
+                    result.getRepaired(), result.getSamples());
+        }
+        return result;
+    }
+
+    @Scheduled(cron = "${devflow.report.rollups.check-cron:0 30 3 * * *}")
+    public void scheduledCheck() {
+        if (enabled) {
+            verify(checkDays, checkRepair);
+        }
+    }
+
+    private void runBackfill(int days) {
+        long start = System.currentTimeMillis();
+
+        Document match = new Document("status", ReportStatus.COMPLETED.name());
+        if (days > 0) {
+            match.append("createdAt", new Document("$gte", startOf(today().minusDays(days - 1L))));
+        }
+
+        List<Document> pipeline = rollupPipeline(match);
+        pipeline.add(new Document("$merge", new Document("into", rollupCollection())
+                .append("on", "_id")
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert")));
+
+        // $merge produces no output; toCollection() runs the pipeline
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(AnalysisReport.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+
+        logger.info("Rollup backfill ({} days) finished in {} ms",
+                days > 0 ? days : "all", System.currentTimeMillis() - start);
+    }
+
+    private void reconcileDay(LocalDate day, boolean repair, RollupCheckResult result) {
+        Map<String, Document> expected = aggregate(rollupPipeline(dayMatch(day))).stream()
+                .collect(Collectors.toMap(row -> row.getString("_id"), Function.identity()));
+        Map<String, ReportRollup> stored = rollupRepository.findByDay(day.toString()).stream()
+                .collect(Collectors.toMap(ReportRollup::getId, Function.identity()));
+
+        for (Map.Entry<String, Document> entry : expected.entrySet()) {
+            result.setBucketsChecked(result.getBucketsChecked() + 1);
+            ReportRollup current = stored.remove(entry.getKey());
+
+            if (current == null) {
+                result.setMissing(result.getMissing() + 1);
+            } else if (!matches(entry.getValue(), current)) {
+                result.setMismatched(result.getMismatched() + 1);
+            } else {
+                continue;
+            }
+            sample(result, entry.getKey());
+            if (repair) {
+                replaceBucket(entry.getValue());
+                result.setRepaired(result.getRepaired() + 1);
+            }
+        }
+
+        // Whatever is left has no completed reports behind it
+        for (String orphan : stored.keySet()) {
+            result.setOrphaned(result.getOrphaned() + 1);
+            sample(result, orphan);
+            if (repair) {
+                rollupRepository.deleteById(orphan);
+                result.setRepaired(result.getRepaired() + 1);
+            }
+        }
+    }
+
+    private boolean matches(Document expected, ReportRollup stored) {
+        if (number(expected, "reportCount").longValue() != stored.getReportCount()
+                || number(expected, "qualityCount").longValue() != stored.getQualityCount()
+                || Math.abs(number(expected, "maintainabilitySum").doubleValue() - stored.getMaintainabilitySum()) > TOLERANCE
+                || !sameValue(expected.get("maintainabilityMin"), stored.getMaintainabilityMin())
+                || !sameValue(expected.get("maintainabilityMax"), stored.getMaintainabilityMax())) {
+            return false;
+        }
+
+        Document issueCounts = expected.get("issueCounts", Document.class);
+        for (IssueSeverity severity : IssueSeverity.values()) {
+            long count = issueCounts != null ? number(issueCounts, severity.name()).longValue() : 0L;
+            if (count != stored.getIssueCount(severity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameValue(Object expected, Double stored) {
+        if (expected == null || stored == null) {
+            return expected == null && stored == null;
+        }
+        return Math.abs(((Number) expected).doubleValue() - stored) <= TOLERANCE;
+    }
+
+    private Number number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    private void sample(RollupCheckResult result, String bucketId) {
+        if (result.getSamples().size() < MAX_SAMPLES) {
+            result.getSamples().add(bucketId);
+        }
+    }
+
+    private void replaceBucket(Document row) {
+        mongoTemplate.getCollection(rollupCollection())
+                .replaceOne(Filters.eq("_id", row.get("_id")), row, new ReplaceOptions().upsert(true));
+    }
+
+    private List<Document> aggregate(List<Document> pipeline) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(AnalysisReport.class))
+                .aggregate(pipeline)
+                .into(new ArrayList<>());
+    }
+
+    /**
+     * Groups the matched completed reports into rollup-shaped documents. Shared by the
+     * backfill, bucket rebuilds and the consistency checker.
+     */
+    private List<Document> rollupPipeline(Document match) {
+        Document project = new Document("userId", 1)
+                .append("language", new Document("$ifNull", List.of("$language", UNKNOWN_LANGUAGE)))
+                .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                        .append("date", "$createdAt")
+                        .append("timezone", mongoTimezone())))
+                .append("maintainability", "$qualityMetrics.maintainabilityIndex")
+                .append("hasQuality", new Document("$cond",
+                        List.of(new Document("$ifNull", List.of("$qualityMetrics", false)), 1, 0)));
+
+        Document group = new Document("_id", new Document("$concat",
+                List.of("$userId", "|", "$language", "|", "$day")))
+                .append("userId", new Document("$first", "$userId"))
+                .append("language", new Document("$first", "$language"))
+                .append("day", new Document("$first", "$day"))
+                .append("reportCount", new Document("$sum", 1))
+                .append("qualityCount", new Document("$sum", "$hasQuality"))
+                .append("maintainabilitySum", new Document("$sum", "$maintainability"))
+                .append("maintainabilityMin", new Document("$min", "$maintainability"))
+                .append("maintainabilityMax", new Document("$max", "$maintainability"));
+
+        Document issueCounts = new Document();
+        for (IssueSeverity severity : IssueSeverity.values()) {
+            String field = ISSUES_PREFIX + severity.name();
+            project.append(field, new Document("$size", new Document("$filter", new Document(
+                    "input", new Document("$ifNull", List.of("$issues", List.of())))
+                    .append("cond", new Document("$eq", List.of("$$this.severity", severity.name()))))));
+            group.append(field, new Document("$sum", "$" + field));
+            issueCounts.append(severity.name(), "$" + field);
+        }
+
+        Document shape = new Document("userId", 1)
+                .append("language", 1)
+                .append("day", 1)
+                .append("reportCount", 1)
+                .append("qualityCount", 1)
+                .append("maintainabilitySum", 1)
+                .append("maintainabilityMin", 1)
+                .append("maintainabilityMax", 1)
+                .append("issueCounts", issueCounts)
+                .append("updatedAt", "$$NOW");
+
+        match.putIfAbsent("userId", new Document("$type", "string"));
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", match));
+        pipeline.add(new Document("$project", project));
+        pipeline.add(new Document("$group", group));
+        pipeline.add(new Document("$project", shape));
+        return pipeline;
+    }
+
+    private Document dayMatch(LocalDate day) {
+        return new Document("status", ReportStatus.COMPLETED.name())
+                .append("createdAt", new Document("$gte", startOf(day)).append("$lt", startOf(day.plusDays(1))));
+    }
+
+    private Map<IssueSeverity, Long> countIssues(List<CodeIssue> issues) {
+        Map<IssueSeverity, Long> counts = new EnumMap<>(IssueSeverity.class);
+        if (issues != null) {
+            issues.stream()
+                    .map(CodeIssue::getSeverity)
+                    .filter(Objects::nonNull)
+                    .forEach(severity -> counts.merge(severity, 1L, Long::sum));
+        }
+        return counts;
+    }
+
+    private String languageOf(AnalysisReport report) {
+        return report.getLanguage() != null ? report.getLanguage() : UNKNOWN_LANGUAGE;
+    }
+
+    // createdAt is persisted as an instant in the JVM zone, so convert before taking the date
+    private String dayOf(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).withZoneSameInstant(zoneId()).toLocalDate().toString();
+    }
+
+    private Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(zoneId()).toInstant());
+    }
+
+    private ZoneId zoneId() {
+        return zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+    }
+
+    // Mongo accepts Olson ids and +hh:mm offsets, but not "Z"
+    private String mongoTimezone() {
+        ZoneId zoneId = zoneId().normalized();
+        if (zoneId instanceof ZoneOffset offset) {
+            return offset.getTotalSeconds() == 0 ? "+00:00" : offset.getId();
+        }
+        return zoneId.getId();
+    }
+
+    private String rollupCollection() {
+        return mongoTemplate.getCollectionName(ReportRollup.class);
+    }
+
+    /**
+     * Running totals over a set of buckets, e.g. a user's last 7 or 30 days.
+     */
+    public static class Totals {
+        private long reportCount;
+        private long qualityCount;
+        private double maintainabilitySum;
+        private Double maintainabilityMin;
+        private Double maintainabilityMax;
+        private final Map<String, Long> languages = new HashMap<>();
+        private final Map<String, Long> issuesBySeverity = new HashMap<>();
+
+        public Totals() {
+            // Every severity is reported, even with no buckets to add
+            for (IssueSeverity severity : IssueSeverity.values()) {
+                issuesBySeverity.put(severity.name(), 0L);
+            }
+        }
+
+        public static Totals of(List<ReportRollup> rollups, LocalDate fromDay) {
+            Totals totals = new Totals();
+            String from = fromDay.toString();
+            rollups.stream()
+                    .filter(rollup -> rollup.getDay().compareTo(from) >= 0)
+                    .forEach(totals::add);
+            return totals;
+        }
+
+        public void add(ReportRollup rollup) {
+            reportCount += rollup.getReportCount();
+            qualityCount += rollup.getQualityCount();
+            maintainabilitySum += rollup.getMaintainabilitySum();
+            if (rollup.getMaintainabilityMin() != null) {
+                maintainabilityMin = maintainabilityMin == null
+                        ? rollup.getMaintainabilityMin() : Math.min(maintainabilityMin, rollup.getMaintainabilityMin());
+            }
+            if (rollup.getMaintainabilityMax() != null) {
+                maintainabilityMax = maintainabilityMax == null
+                        ? rollup.getMaintainabilityMax() : Math.max(maintainabilityMax, rollup.getMaintainabilityMax());
+            }
+            languages.merge(rollup.getLanguage(), rollup.getReportCount(), Long::sum);
+            for (IssueSeverity severity : IssueSeverity.values()) {
+                issuesBySeverity.merge(severity.name(), rollup.getIssueCount(severity), Long::sum);
+            }
+        }
+
+        public long getReportCount() { return reportCount; }
+
+        public double getAverageMaintainability() {
+            return qualityCount > 0 ? maintainabilitySum / qualityCount : 0.0;
+        }
+
+        public Double getMaintainabilityMin() { return maintainabilityMin; }
+
+        public Double getMaintainabilityMax() { return maintainabilityMax; }
+
+        public Map<String, Long> getLanguages() { return languages; }
+
+        public Map<String, Long> getIssuesBySeverity() { return issuesBySeverity; }
+    }
+}
@@ -0,0 +1,238 @@
+package com.devflow.report.service;
+
+import com.devflow.report.dto.ReportListItemDto;
+import com.devflow.report.dto.ReportSearchRequest;
+import com.devflow.report.dto.ReportSearchResult;
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.IssueSeverity;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side search over a user's reports: full text over file and project names, issue
+ * descriptions and suggestions, combined with filters, plus facet counts for language, issue
+ * severity, grade and month. Everything runs inside Mongo; only a page of list rows and the
+ * facet counts come back.
+ * <p>
+ * The text index is created here rather than by annotation: it is prefixed with userId, so
+ * a search only walks the one user's entries, and it must not treat the reports'
+ * {@code language} field (java, python, ...) as the text language, which Mongo does by
+ * default. Mongo maintains the index on every report write.
+ * <p>
+ * Hits are ordered newest first and paged with an opaque (createdAt, id) cursor, so a page
+ * costs the same however deep it is.
+ */
+@Service
+public class ReportSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportSearchService.class);
+
+    static final String TEXT_INDEX = "user_report_text_idx";
+    // Absent from reports, so every report is indexed in the default text language
+    private static final String TEXT_LANGUAGE_FIELD = "textLanguage";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${devflow.report.search.text-language:english}")
+    private String textLanguage;
+
+    @Value("${devflow.report.search.max-page-size:100}")
+    private int maxPageSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureTextIndex() {
+        Document keys = new Document("userId", 1)
+                .append("fileName", "text")
+                .append("projectName", "text")
+                .append("issues.description", "text")
+                .append("issues.suggestion", "text")
+                .append("suggestions", "text");
+        IndexOptions options = new IndexOptions()
+                .name(TEXT_INDEX)
+                .weights(new Document("fileName", 10).append("projectName", 5)
+                        .append("issues.description", 2).append("issues.suggestion", 1).append("suggestions", 1))
+                .defaultLanguage(textLanguage)
+                .languageOverride(TEXT_LANGUAGE_FIELD);
+        try {
+            reports().createIndex(keys, options);
+        } catch (MongoException e) {
+            // Searches with q fail until it exists; filter-only searches do not need it
+            logger.warn("Could not create report text index {}", TEXT_INDEX, e);
+        }
+    }
+
+    public ReportSearchResult search(String userId, ReportSearchRequest request) {
+        int size = Math.max(1, Math.min(request.getSize(), maxPageSize));
+        Document match = filters(userId, request);
+
+        boolean firstPage = request.getCursor() == null || request.getCursor().isBlank();
+
+        Document hitsMatch = new Document(match);
+        if (!firstPage) {
+            hitsMatch.append("$or", afterCursor(request.getCursor()));
+        }
+
+        // One row more than the page tells whether there is a next page
+        List<Document> hits = reports().aggregate(List.of(
+                new Document("$match", hitsMatch),
+                new Document("$sort", new Document("createdAt", -1).append("_id", -1)),
+                new Document("$limit", size + 1),
+                new Document("$project", new Document("projectName", 1).append("fileName", 1)
+                        .append("language", 1).append("status", 1)
+                        .append("qualityMetrics.overallGrade", 1).append("createdAt", 1))
+        )).into(new ArrayList<>());
+
+        String nextCursor = null;
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            nextCursor = cursorOf(hits.get(size - 1));
+        }
+        List<ReportListItemDto> items = hits.stream()
+                .map(hit -> ReportListItemDto.from(mongoTemplate.getConverter().read(AnalysisReport.class, hit)))
+                .collect(Collectors.toList());
+
+        // Facets do not change from page to page; clients keep the first page's
+        Map<String, Map<String, Long>> facets = firstPage ? facets(match) : null;
+        return new ReportSearchResult(items, nextCursor, facets);
+    }
+
+    private Document filters(String userId, ReportSearchRequest request) {
+        Document match = new Document("userId", userId);
+        if (request.getQ() != null && !request.getQ().isBlank()) {
+            match.append("$text", new Document("$search", request.getQ()));
+        }
+        if (request.getProjectName() != null) {
+            match.append("projectName", request.getProjectName());
+        }
+        if (request.getLanguage() != null && !request.getLanguage().isEmpty()) {
+            match.append("language", new Document("$in", request.getLanguage()));
+        }
+        if (request.getSeverity() != null && !request.getSeverity().isEmpty()) {
+            match.append("issues.severity", new Document("$in",
+                    request.getSeverity().stream().map(IssueSeverity::name).collect(Collectors.toList())));
+        }
+        if (request.getGrade() != null && !request.getGrade().isEmpty()) {
+            match.append("qualityMetrics.overallGrade", new Document("$in", request.getGrade()));
+        }
+        if (request.getFrom() != null || request.getTo() != null) {
+            Document createdAt = new Document();
+            if (request.getFrom() != null) {
+                createdAt.append("$gte", startOf(request.getFrom()));
+            }
+            if (request.getTo() != null) {
+                createdAt.append("$lt", startOf(request.getTo().plusDays(1)));
+            }
+            match.append("createdAt", createdAt);
+        }
+        return match;
+    }
+
+    /**
+     * Counts matching reports per language, severity, grade and month in one aggregation. A
+     * report counts once for each severity it has issues of.
+     */
+    private Map<String, Map<String, Long>> facets(Document match) {
+        List<Document> severity = new ArrayList<>();
+        severity.add(new Document("$unwind", "$severities"));
+        severity.addAll(countBy("$severities"));
+
+        Document facets = new Document()
+                .append("language", countBy("$language"))
+                .append("severity", severity)
+                .append("grade", countBy("$grade"))
+                .append("month", List.of(
+                        new Document("$group", new Document("_id", new Document("$dateToString",
+                                new Document("format", "%Y-%m")
+                                        .append("date", "$createdAt")
+                                        .append("timezone", ZoneId.systemDefault().getId())))
+                                .append("count", new Document("$sum", 1))),
+                        // Newest month first, like the hits
+                        new Document("$sort", new Document("_id", -1))));
+
+        List<Document> rows = reports().aggregate(List.of(
+                new Document("$match", match),
+                // Only what the facets group on flows into $facet
+                new Document("$project", new Document("_id", 0)
+                        .append("language", 1)
+                        .append("grade", "$qualityMetrics.overallGrade")
+                        .append("createdAt", 1)
+                        .append("severities", new Document("$setUnion", List.of(
+                                new Document("$ifNull", List.of("$issues.severity", List.of())), List.of())))),
+                new Document("$facet", facets)
+        )).into(new ArrayList<>());
+
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        Document counts = rows.isEmpty() ? new Document() : rows.get(0);
+        for (String facet : facets.keySet()) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (Document row : counts.getList(facet, Document.class, List.of())) {
+                Object value = row.get("_id");
+                values.put(value != null ? value.toString() : "unknown", ((Number) row.get("count")).longValue());
+            }
+            result.put(facet, values);
+        }
+        return result;
+    }
+
+    // Largest counts first
+    private static List<Document> countBy(Object key) {
+        return List.of(
+                new Document("$group", new Document("_id", key).append("count", new Document("$sum", 1))),
+                new Document("$sort", new Document("count", -1).append("_id", 1)));
+    }
+
+    // Reports after the cursor's row in (createdAt desc, _id desc) order
+    private static List<Document> afterCursor(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        Date createdAt = new Date(Long.parseLong(parts[0]));
+        Object id = ObjectId.isValid(parts[1]) ? new ObjectId(parts[1]) : parts[1];
+        return List.of(
+                new Document("createdAt", new Document("$lt", createdAt)),
+                new Document("createdAt", createdAt).append("_id", new Document("$lt", id)));
+    }
+
+    private static String cursorOf(Document hit) {
+        Date createdAt = hit.getDate("createdAt");
+        String value = (createdAt != null ? createdAt.getTime() : 0L) + "|" + hit.get("_id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Stored dates are the JVM zone's local times converted to instants, as Spring Data writes them
+    private static Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private MongoCollection<Document> reports() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(AnalysisReport.class));
+    }
+}
@@ -1,9 +1,15 @@
 package com.devflow.report.service;
 
+import com.devflow.report.dto.AnalysisCompletedEvent;
 import com.devflow.report.dto.AnalysisResultDto;
+import com.devflow.report.dto.IssueListItemDto;
 import com.devflow.report.dto.ReportGenerationRequest;
+import com.devflow.report.dto.ReportListItemDto;
 import com.devflow.report.dto.ReportSummaryDto;
 import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.CodeQualityMetrics;
+import com.devflow.report.model.IssueSeverity;
 import com.devflow.report.model.ReportFormat;
 import com.devflow.report.model.ReportStatus;
 import com.devflow.report.repository.AnalysisReportRepository;
@@ -11,28 +17,72 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
 
+    // Project of reports whose analysis was submitted without one
+    static final String DEFAULT_PROJECT = "default";
+
     @Autowired
     private AnalysisReportRepository reportRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Autowired
     private ReportGenerationService reportGenerationService;
 
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private ReportArtifactCache artifactCache;
+
+    @Autowired
+    private ReportRetentionService retentionService;
+
+    @Autowired
+    private ReportReadCache readCache;
+
+    @Autowired
+    private ReportTrendService trendService;
+
+    @Autowired
+    private IssueClassifier issueClassifier;
+
     public AnalysisReport createReport(String userId, String projectName, String fileName, String language) {
         logger.info("Creating new analysis report for user: {}, project: {}", userId, projectName);
 
@@ -41,15 +91,49 @@ public class ReportService {
     }
 
     public Optional<AnalysisReport> findById(String reportId) {
-        return reportRepository.findById(reportId);
+        return readCache.getReport(reportId, reportRepository::findById);
+    }
+
+    public boolean reportExists(String reportId) {
+        return reportRepository.existsById(reportId);
     }
 
-    public Page<AnalysisReport> getUserReports(String userId, Pageable pageable) {
-        return reportRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    public Page<ReportListItemDto> getUserReports(String userId, Pageable pageable) {
+        return reportRepository.findListItemsByUserId(userId, pageable).map(ReportListItemDto::from);
     }
 
-    public List<AnalysisReport> getProjectReports(String userId, String projectName) {
-        return reportRepository.findByUserIdAndProjectNameOrderByCreatedAtDesc(userId, projectName);
+    public List<ReportListItemDto> getProjectReports(String userId, String projectName) {
+        return reportRepository.findListItemsByUserIdAndProjectName(userId, projectName).stream()
+                .map(ReportListItemDto::from)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The user's issues of the given severities, newest reports first, optionally of one
+     * project. Reports are selected through the (userId, issues.severity) index; only their
+     * matching issues come back.
+     */
+    public List<IssueListItemDto> findIssues(String userId, Collection<IssueSeverity> severities,
+                                             String projectName, int limit) {
+        // Names rather than enums: the stages after $unwind are not mapped against the document type
+        List<String> severityNames = severities.stream().map(Enum::name).collect(Collectors.toList());
+
+        Criteria reports = Criteria.where("userId").is(userId).and("issues.severity").in(severityNames);
+        if (projectName != null) {
+            reports.and("projectName").is(projectName);
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(reports),
+                Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                Aggregation.project("projectName", "fileName", "createdAt", "issues"),
+                Aggregation.unwind("issues"),
+                Aggregation.match(Criteria.where("issues.severity").in(severityNames)),
+                Aggregation.limit(limit),
+                Aggregation.project("projectName", "fileName", "createdAt")
+                        .and("_id").as("reportId")
+                        .and("issues").as("issue"));
+        return mongoTemplate.aggregate(aggregation, AnalysisReport.class, IssueListItemDto.class).getMappedResults();
     }
 
     public AnalysisReport updateReportWithResults(String reportId, AnalysisResultDto analysisResult) {
@@ -61,6 +145,9 @@ public class ReportService {
         }
 
         AnalysisReport report = optionalReport.get();
+        boolean previouslyCompleted = report.getStatus() == ReportStatus.COMPLETED;
+        issueClassifier.complete(analysisResult.getIssues());
+
         report.setStatus(ReportStatus.COMPLETED);
         report.setQualityMetrics(analysisResult.getQualityMetrics());
         report.setIssues(analysisResult.getIssues());
@@ -68,7 +155,172 @@ public class ReportService {
         report.setRawAnalysisData(analysisResult.getRawData());
         report.setCompletedAt(LocalDateTime.now());
 
-        return reportRepository.save(report);
+        AnalysisReport savedReport = reportRepository.save(report);
+
+        // A report completed twice replaces its earlier contribution, which cannot be undone by increments
+        updateRollups(savedReport, previouslyCompleted);
+        updateTrends(savedReport);
+        readCache.invalidateReport(reportId, savedReport.getUserId());
+        return savedReport;
+    }
+
+    /**
+     * Applies a batch of analysis results with one unordered bulk write, instead of a read and a
+     * save per report. Only the fields the rollups need are read beforehand. When a batch holds
+     * several results for the same report the last one wins, since an unordered bulk write would
+     * not apply them in order.
+     *
+     * @return the ids of reports that do not exist; their results were not applied
+     */
+    public Set<String> applyAnalysisResults(List<AnalysisResultDto> results) {
+        Map<String, AnalysisResultDto> latest = new LinkedHashMap<>();
+        for (AnalysisResultDto result : results) {
+            latest.put(result.getReportId(), result);
+        }
+
+        Map<String, AnalysisReport> reports = reportRepository.findCompletionStateByIdIn(latest.keySet()).stream()
+                .collect(Collectors.toMap(AnalysisReport::getId, Function.identity()));
+        Set<String> missing = new HashSet<>(latest.keySet());
+        missing.removeAll(reports.keySet());
+        if (reports.isEmpty()) {
+            return missing;
+        }
+
+        // Bulk updates bypass auditing, so updatedAt is set here
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalysisReport.class);
+        List<AnalysisReport> completed = new ArrayList<>(reports.size());
+        List<AnalysisReport> recompleted = new ArrayList<>();
+        for (AnalysisResultDto result : latest.values()) {
+            AnalysisReport report = reports.get(result.getReportId());
+            if (report == null) {
+                continue;
+            }
+            (report.getStatus() == ReportStatus.COMPLETED ? recompleted : completed).add(report);
+            issueClassifier.complete(result.getIssues());
+
+            report.setStatus(ReportStatus.COMPLETED);
+            report.setQualityMetrics(result.getQualityMetrics());
+            report.setIssues(result.getIssues());
+            report.setSuggestions(result.getSuggestions());
+            report.setRawAnalysisData(result.getRawData());
+            report.setCompletedAt(now);
+
+            bulk.updateOne(Query.query(Criteria.where("_id").is(report.getId())), new Update()
+                    .set("status", ReportStatus.COMPLETED)
+                    .set("qualityMetrics", result.getQualityMetrics())
+                    .set("issues", result.getIssues())
+                    .set("suggestions", result.getSuggestions())
+                    .set("rawAnalysisData", result.getRawData())
+                    .set("completedAt", now)
+                    .set("updatedAt", now));
+        }
+        bulk.execute();
+        logger.debug("Applied {} analysis results in one bulk write", reports.size());
+
+        completed.forEach(report -> updateRollups(report, false));
+        recompleted.forEach(report -> updateRollups(report, true));
+        latest.keySet().stream().map(reports::get).filter(Objects::nonNull).forEach(this::updateTrends);
+        readCache.invalidate(reports.keySet(), Set.of(),
+                reports.values().stream().map(AnalysisReport::getUserId).collect(Collectors.toSet()));
+        return missing;
+    }
+
+    /**
+     * Creates or completes the reports of a batch of completed analyses with one unordered bulk
+     * upsert keyed by analysis id, so a redelivered event rewrites the same report instead of
+     * adding another. A report the upsert inserted is added to the rollups; one it matched was
+     * already there, and its bucket is rebuilt instead.
+     */
+    public void applyAnalysisCompletions(List<AnalysisCompletedEvent> events) {
+        Map<Long, AnalysisCompletedEvent> latest = new LinkedHashMap<>();
+        for (AnalysisCompletedEvent event : events) {
+            latest.put(event.getAnalysisId(), event);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalysisReport.class);
+        List<AnalysisReport> reports = new ArrayList<>(latest.size());
+        for (AnalysisCompletedEvent event : latest.values()) {
+            AnalysisReport report = toReport(event, now);
+            reports.add(report);
+
+            bulk.upsert(Query.query(Criteria.where("analysisId").is(event.getAnalysisId())), new Update()
+                    .setOnInsert("userId", report.getUserId())
+                    .setOnInsert("projectName", report.getProjectName())
+                    .setOnInsert("fileName", report.getFileName())
+                    .setOnInsert("language", report.getLanguage())
+                    .setOnInsert("createdAt", report.getCreatedAt())
+                    .set("status", ReportStatus.COMPLETED)
+                    .set("qualityMetrics", report.getQualityMetrics())
+                    .set("issues", report.getIssues())
+                    .set("suggestions", report.getSuggestions())
+                    .set("rawAnalysisData", report.getRawAnalysisData())
+                    .set("completedAt", report.getCompletedAt())
+                    .set("updatedAt", now));
+        }
+        BulkWriteResult result = bulk.execute();
+        logger.debug("Upserted reports for {} completed analyses ({} new)",
+                reports.size(), result.getUpserts().size());
+
+        // Upserts are reported by their position in the bulk, which is the position in reports
+        Set<Integer> inserted = new HashSet<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            inserted.add(upsert.getIndex());
+        }
+        for (int i = 0; i < reports.size(); i++) {
+            updateRollups(reports.get(i), !inserted.contains(i));
+        }
+        if (trendService.isEnabled()) {
+            recordCompletionTrends(reports);
+        }
+        // Matched reports may be cached under report ids this batch never saw
+        readCache.invalidate(Set.of(), latest.keySet(),
+                reports.stream().map(AnalysisReport::getUserId).collect(Collectors.toSet()));
+    }
+
+    // The report a completed analysis amounts to; the analyzer's own scores stay in rawAnalysisData
+    private AnalysisReport toReport(AnalysisCompletedEvent event, LocalDateTime now) {
+        String projectName = event.getProjectName() != null && !event.getProjectName().isBlank()
+                ? event.getProjectName() : DEFAULT_PROJECT;
+        AnalysisReport report = new AnalysisReport(event.getUserId(), projectName, event.getFileName(), event.getFileType());
+        report.setAnalysisId(event.getAnalysisId());
+        report.setStatus(ReportStatus.COMPLETED);
+        report.setCreatedAt(event.getCreatedAt() != null ? event.getCreatedAt() : now);
+        report.setCompletedAt(event.getCompletedAt() != null ? event.getCompletedAt() : now);
+
+        List<CodeIssue> issues = issueClassifier.classify(event.getIssues());
+        report.setIssues(issues);
+        report.setSuggestions(event.getSuggestions() != null ? event.getSuggestions() : List.of());
+
+        CodeQualityMetrics metrics = new CodeQualityMetrics();
+        if (event.getMaintainabilityScore() != null) {
+            metrics.setMaintainabilityIndex(event.getMaintainabilityScore());
+        }
+        metrics.setCodeSmells(issues.size());
+        metrics.setOverallGrade(grade(event.getQualityScore()));
+        report.setQualityMetrics(metrics);
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("analysisId", event.getAnalysisId());
+        raw.put("complexityScore", event.getComplexityScore());
+        raw.put("qualityScore", event.getQualityScore());
+        raw.put("maintainabilityScore", event.getMaintainabilityScore());
+        raw.put("summary", event.getSummary());
+        raw.put("promptVersion", event.getPromptVersion());
+        report.setRawAnalysisData(raw);
+        return report;
+    }
+
+    private static String grade(Integer qualityScore) {
+        if (qualityScore == null) {
+            return null;
+        }
+        if (qualityScore >= 90) return "A";
+        if (qualityScore >= 80) return "B";
+        if (qualityScore >= 70) return "C";
+        if (qualityScore >= 60) return "D";
+        return "F";
     }
 
     public String generateReport(String reportId, ReportFormat format) {
@@ -83,9 +335,10 @@ public class ReportService {
 
         try {
             String reportUrl = reportGenerationService.generateReport(report, format);
-            report.setReportUrl(reportUrl);
-            report.setFormat(format);
-            reportRepository.save(report);
+            // Repeat renders are cache hits; skip the write when nothing changed
+            if (!reportUrl.equals(report.getReportUrl()) || format != report.getFormat()) {
+                recordRender(reportId, reportUrl, format);
+            }
 
             return reportUrl;
         } catch (Exception e) {
@@ -94,11 +347,85 @@ public class ReportService {
         }
     }
 
+    /**
+     * Sets only the render fields: a render can take long enough for results, a status change
+     * or an expiry to be written to the report meanwhile, and saving the whole document read
+     * before the render would undo them.
+     */
+    private void recordRender(String reportId, String reportUrl, ReportFormat format) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(reportId)),
+                new Update().set("reportUrl", reportUrl)
+                        .set("format", format)
+                        .set("updatedAt", LocalDateTime.now()),
+                AnalysisReport.class);
+        readCache.invalidateReport(reportId, null);
+    }
+
+    /**
+     * Renders the report in each of the formats from one read of it and returns their download
+     * URLs. The report records the first format's render, as a single generate would.
+     */
+    public Map<ReportFormat, String> generateReports(String reportId, Collection<ReportFormat> formats) {
+        logger.info("Generating {} reports for report ID: {}", formats, reportId);
+
+        Optional<AnalysisReport> optionalReport = reportRepository.findById(reportId);
+        if (optionalReport.isEmpty()) {
+            throw new RuntimeException("Report not found: " + reportId);
+        }
+
+        AnalysisReport report = optionalReport.get();
+
+        try {
+            Map<ReportFormat, String> reportUrls = reportGenerationService.generateReports(report, formats);
+            if (!reportUrls.isEmpty()) {
+                Map.Entry<ReportFormat, String> first = reportUrls.entrySet().iterator().next();
+                if (!first.getValue().equals(report.getReportUrl()) || first.getKey() != report.getFormat()) {
+                    recordRender(reportId, first.getValue(), first.getKey());
+                }
+            }
+
+            return reportUrls;
+        } catch (Exception e) {
+            logger.error("Failed to generate reports for ID: {}", reportId, e);
+            throw new RuntimeException("Failed to generate reports", e);
+        }
+    }
+
+    /**
+     * Download URL of an already rendered, up to date artifact for the report, if there is one.
+     */
+    public Optional<String> findCachedReportUrl(String reportId, ReportFormat format) {
+        return reportRepository.findById(reportId)
+                .flatMap(report -> reportGenerationService.findCachedReport(report, format));
+    }
+
+    public void streamReport(AnalysisReport report, ReportFormat format, OutputStream out) throws IOException {
+        logger.info("Streaming {} report for report ID: {}", format, report.getId());
+        reportGenerationService.writeReport(report, format, out);
+    }
+
     public ReportSummaryDto getUserReportSummary(String userId) {
+        return readCache.getSummary(userId, this::buildUserReportSummary);
+    }
+
+    private ReportSummaryDto buildUserReportSummary(String userId) {
         logger.info("Generating report summary for user: {}", userId);
 
         long totalReports = reportRepository.countByUserIdAndStatus(userId, ReportStatus.COMPLETED);
 
+        if (rollupService.isEnabled()) {
+            LocalDate lastWeekDay = rollupService.today().minusDays(7);
+            ReportRollupService.Totals recent = ReportRollupService.Totals.of(
+                    rollupService.getUserRollupsSince(userId, lastWeekDay), lastWeekDay);
+
+            return new ReportSummaryDto(
+                    totalReports,
+                    recent.getReportCount(),
+                    recent.getLanguages(),
+                    recent.getAverageMaintainability()
+            );
+        }
+
         LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
         List<AnalysisReport> recentReports = reportRepository.findCompletedReportsSince(userId, lastWeek);
 
@@ -128,8 +455,15 @@ public class ReportService {
         Optional<AnalysisReport> optionalReport = reportRepository.findById(reportId);
         if (optionalReport.isPresent()) {
             AnalysisReport report = optionalReport.get();
+            boolean previouslyCompleted = report.getStatus() == ReportStatus.COMPLETED;
             report.setStatus(ReportStatus.FAILED);
             reportRepository.save(report);
+
+            if (previouslyCompleted) {
+                updateRollups(report, true);
+                removeFromTrends(report);
+            }
+            readCache.invalidateReport(reportId, report.getUserId());
         }
     }
 
@@ -139,12 +473,75 @@ public class ReportService {
 
     public void deleteReport(String reportId) {
         logger.info("Deleting report: {}", reportId);
+
+        Optional<AnalysisReport> optionalReport = reportRepository.findById(reportId);
         reportRepository.deleteById(reportId);
+        artifactCache.removeReport(reportId);
+        readCache.invalidateReport(reportId, optionalReport.map(AnalysisReport::getUserId).orElse(null));
+
+        optionalReport
+                .filter(report -> report.getStatus() == ReportStatus.COMPLETED)
+                .ifPresent(report -> {
+                    updateRollups(report, true);
+                    removeFromTrends(report);
+                });
     }
 
+    /**
+     * Archives and expires every report older than {@code daysOld} days, in batches; Mongo's TTL
+     * monitor deletes them shortly after and the storage sweeper removes their files. Rollups
+     * are kept, as with scheduled retention.
+     */
     public void cleanupOldReports(int daysOld) {
         LocalDateTime cutoff = LocalDateTime.now().minusDays(daysOld);
         logger.info("Cleaning up reports older than {}", cutoff);
-        reportRepository.deleteByCreatedAtBefore(cutoff);
+        int expired = retentionService.expireReportsCreatedBefore(cutoff);
+        logger.info("Expired {} reports created before {}", expired, cutoff);
+    }
+
+    // Upserts leave the ids of matched reports unknown, and keep their original createdAt; one
+    // projected read brings both, and the trend points are keyed and ordered by them
+    private void recordCompletionTrends(List<AnalysisReport> reports) {
+        Map<Long, AnalysisReport> byAnalysis = reports.stream()
+                .collect(Collectors.toMap(AnalysisReport::getAnalysisId, Function.identity(), (a, b) -> b));
+        Query query = Query.query(Criteria.where("analysisId").in(byAnalysis.keySet()));
+        query.fields().include("_id", "analysisId", "createdAt");
+        for (AnalysisReport stored : mongoTemplate.find(query, AnalysisReport.class)) {
+            AnalysisReport report = byAnalysis.get(stored.getAnalysisId());
+            report.setId(stored.getId());
+            report.setCreatedAt(stored.getCreatedAt());
+            updateTrends(report);
+        }
+    }
+
+    private void updateTrends(AnalysisReport report) {
+        // Trends are derived data too; a project's trend can be rebuilt from its reports
+        try {
+            trendService.recordCompletion(report);
+        } catch (Exception e) {
+            logger.warn("Failed to update trend for report {}", report.getId(), e);
+        }
+    }
+
+    private void removeFromTrends(AnalysisReport report) {
+        try {
+            trendService.removeReport(report);
+        } catch (Exception e) {
+            logger.warn("Failed to remove report {} from its trend", report.getId(), e);
+        }
+    }
+
+    private void updateRollups(AnalysisReport report, boolean rebuild) {
+        // Rollups are derived data: never fail the report update over them
+        try {
+            if (rebuild) {
+                rollupService.rebuildBucket(report);
+            } else {
+                rollupService.recordCompletion(report);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to update rollups for report {}, the consistency check will repair them",
+                    report.getId(), e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.repository.AnalysisReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes rendered artifacts nothing links to any more: those of reports that were deleted or
+ * expired, and versions superseded by a newer render of the same report and format. Works from
+ * the artifact index, so a sweep never lists the storage directories. Deletions are paced to
+ * {@code sweep-deletes-per-second} and capped per run, so the sweep after a large expiry does
+ * not saturate the disk or hold the scheduler thread; what is left goes in the next run.
+ */
+@Service
+public class ReportStorageSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(ReportStorageSweeper.class);
+
+    private static final int ID_BATCH_SIZE = 500;
+
+    @Autowired
+    private ReportArtifactCache artifactCache;
+
+    @Autowired
+    private AnalysisReportRepository reportRepository;
+
+    // A superseded version stays this long after its replacement, for downloads of links already handed out
+    @Value("${devflow.report.storage.sweep-grace-minutes:60}")
+    private long graceMinutes;
+
+    @Value("${devflow.report.storage.sweep-deletes-per-second:100}")
+    private int deletesPerSecond;
+
+    @Value("${devflow.report.storage.sweep-max-deletes:20000}")
+    private int maxDeletes;
+
+    @Scheduled(cron = "${devflow.report.storage.sweep-cron:0 15 * * * *}")
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.warn("Report storage sweep failed", e);
+        }
+    }
+
+    /**
+     * @return the number of artifacts deleted
+     */
+    public int sweep() {
+        Map<String, List<ReportArtifactCache.Artifact>> byReport = new LinkedHashMap<>();
+        for (ReportArtifactCache.Artifact artifact : artifactCache.snapshot()) {
+            ReportArtifactCache.reportIdOf(artifact.getFileName())
+                    .ifPresent(reportId -> byReport.computeIfAbsent(reportId, id -> new ArrayList<>()).add(artifact));
+        }
+
+        Set<String> existing = findExistingReports(new ArrayList<>(byReport.keySet()));
+        long supersededBefore = System.currentTimeMillis() - Duration.ofMinutes(graceMinutes).toMillis();
+        long startNanos = System.nanoTime();
+
+        int orphaned = 0;
+        int superseded = 0;
+        for (Map.Entry<String, List<ReportArtifactCache.Artifact>> entry : byReport.entrySet()) {
+            if (orphaned + superseded >= maxDeletes) {
+                logger.info("Report storage sweep stopped at {} deletions, continuing next run", maxDeletes);
+                break;
+            }
+            if (!existing.contains(entry.getKey())) {
+                for (ReportArtifactCache.Artifact artifact : entry.getValue()) {
+                    if (artifactCache.remove(artifact.getFileName())) {
+                        orphaned++;
+                        pace(startNanos, orphaned + superseded);
+                    }
+                }
+                continue;
+            }
+
+            Map<String, List<ReportArtifactCache.Artifact>> byFormat = entry.getValue().stream()
+                    .collect(Collectors.groupingBy(artifact -> extension(artifact.getFileName())));
+            for (List<ReportArtifactCache.Artifact> versions : byFormat.values()) {
+                Optional<ReportArtifactCache.Artifact> newest = versions.stream()
+                        .max(Comparator.comparingLong(ReportArtifactCache.Artifact::getCreatedAtMillis));
+                if (newest.isEmpty() || newest.get().getCreatedAtMillis() >= supersededBefore) {
+                    continue;
+                }
+                for (ReportArtifactCache.Artifact artifact : versions) {
+                    if (artifact != newest.get() && artifactCache.remove(artifact.getFileName())) {
+                        superseded++;
+                        pace(startNanos, orphaned + superseded);
+                    }
+                }
+            }
+        }
+
+        if (orphaned + superseded > 0) {
+            logger.info("Swept report storage: {} artifacts of deleted reports, {} superseded versions",
+                    orphaned, superseded);
+        }
+        return orphaned + superseded;
+    }
+
+    // Waits until the n-th deletion is due at the configured rate
+    private void pace(long startNanos, int deleted) {
+        if (deletesPerSecond <= 0) {
+            return;
+        }
+        long wait = startNanos + deleted * 1_000_000_000L / deletesPerSecond - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private Set<String> findExistingReports(List<String> reportIds) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < reportIds.size(); from += ID_BATCH_SIZE) {
+            List<String> batch = reportIds.subList(from, Math.min(from + ID_BATCH_SIZE, reportIds.size()));
+            reportRepository.findIdsByIdIn(batch).stream()
+                    .map(AnalysisReport::getId)
+                    .forEach(existing::add);
+        }
+        return existing;
+    }
+
+    private static String extension(String fileName) {
+        return fileName.substring(fileName.lastIndexOf('.') + 1);
+    }
+}
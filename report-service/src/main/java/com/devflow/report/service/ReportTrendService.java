@@ -0,0 +1,289 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.AnalysisReport;
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.ReportStatus;
+import com.devflow.report.model.ReportTrendPoint;
+import com.devflow.report.repository.ReportTrendRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the {@code report_trends} collection: one point per completed report, holding its
+ * quality metrics and its issue delta against the previous report of the same file in the
+ * same project. Issues are matched by type, description (case and whitespace insensitive) and
+ * line, counting duplicates, and each point keeps the fingerprints of its issues so the next
+ * report is diffed without reading this one back.
+ *
+ * A report completing out of order, failing after completion or being deleted also re-diffs
+ * the point after it. Like rollups, points outlive their reports through retention.
+ */
+@Service
+public class ReportTrendService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportTrendService.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReportTrendRepository trendRepository;
+
+    @Value("${devflow.report.trends.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devflow.report.trends.max-listed-issues:50}")
+    private int maxListedIssues;
+
+    @Value("${devflow.report.trends.max-points:1000}")
+    private int maxPoints;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The points of a project, oldest first, optionally of one file and between {@code from}
+     * and {@code to} (inclusive days). At most the latest {@code max-points} are returned.
+     */
+    public List<ReportTrendPoint> getProjectTrend(String userId, String projectName, String fileName,
+                                                  LocalDate from, LocalDate to) {
+        Criteria criteria = Criteria.where("userId").is(userId).and("projectName").is(projectName);
+        if (fileName != null) {
+            criteria.and("fileName").is(fileName);
+        }
+        if (from != null || to != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (from != null) {
+                createdAt.gte(from.atStartOfDay());
+            }
+            if (to != null) {
+                createdAt.lt(to.plusDays(1).atStartOfDay());
+            }
+        }
+
+        // Newest first so the limit keeps the latest points, then back into time order
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(maxPoints);
+        query.fields().exclude("issueFingerprints");
+        List<ReportTrendPoint> points = new ArrayList<>(mongoTemplate.find(query, ReportTrendPoint.class));
+        Collections.reverse(points);
+        return points;
+    }
+
+    /**
+     * Writes the point of a completed report and re-diffs the point after it, if the report
+     * completed after a later report of the same file. The report needs its id, identity
+     * fields, createdAt, metrics and issues.
+     */
+    public void recordCompletion(AnalysisReport report) {
+        if (!enabled || report.getId() == null || report.getUserId() == null || report.getCreatedAt() == null) {
+            return;
+        }
+
+        ReportTrendPoint previous = trendRepository
+                .findFirstByUserIdAndProjectNameAndFileNameAndCreatedAtLessThanOrderByCreatedAtDesc(
+                        report.getUserId(), report.getProjectName(), report.getFileName(), report.getCreatedAt())
+                .orElse(null);
+
+        ReportTrendPoint point = toPoint(report);
+        diff(point, report.getIssues(), previous, null);
+        trendRepository.save(point);
+
+        trendRepository.findFirstByUserIdAndProjectNameAndFileNameAndCreatedAtGreaterThanOrderByCreatedAtAsc(
+                        report.getUserId(), report.getProjectName(), report.getFileName(), report.getCreatedAt())
+                .ifPresent(next -> rediff(next, point, report.getIssues()));
+    }
+
+    /**
+     * Removes the point of a report that failed after completing or was deleted, and diffs the
+     * point after it against the one before instead.
+     */
+    public void removeReport(AnalysisReport report) {
+        if (!enabled || report.getId() == null || report.getCreatedAt() == null) {
+            return;
+        }
+        trendRepository.deleteById(report.getId());
+
+        trendRepository.findFirstByUserIdAndProjectNameAndFileNameAndCreatedAtGreaterThanOrderByCreatedAtAsc(
+                        report.getUserId(), report.getProjectName(), report.getFileName(), report.getCreatedAt())
+                .ifPresent(next -> rediff(next, trendRepository
+                        .findFirstByUserIdAndProjectNameAndFileNameAndCreatedAtLessThanOrderByCreatedAtDesc(
+                                report.getUserId(), report.getProjectName(), report.getFileName(),
+                                report.getCreatedAt())
+                        .orElse(null), null));
+    }
+
+    /**
+     * Rewrites all points of a project from its completed reports, file by file in time order,
+     * e.g. for reports that completed before trends existed.
+     *
+     * @return the number of points written
+     */
+    public int rebuildProject(String userId, String projectName) {
+        long removed = trendRepository.deleteByUserIdAndProjectName(userId, projectName);
+
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                        .and("projectName").is(projectName)
+                        .and("status").is(ReportStatus.COMPLETED))
+                .with(Sort.by("fileName", "createdAt"));
+        query.fields().include("userId", "projectName", "fileName", "createdAt", "completedAt",
+                "qualityMetrics", "issues");
+
+        int written = 0;
+        ReportTrendPoint previous = null;
+        List<CodeIssue> previousIssues = null;
+        try (Stream<AnalysisReport> reports = mongoTemplate.stream(query, AnalysisReport.class)) {
+            for (AnalysisReport report : (Iterable<AnalysisReport>) reports::iterator) {
+                if (report.getCreatedAt() == null) {
+                    continue;
+                }
+                if (previous != null && !Objects.equals(previous.getFileName(), report.getFileName())) {
+                    previous = null;
+                    previousIssues = null;
+                }
+
+                ReportTrendPoint point = toPoint(report);
+                diff(point, report.getIssues(), previous, previousIssues);
+                trendRepository.save(point);
+                written++;
+
+                previous = point;
+                previousIssues = report.getIssues();
+            }
+        }
+
+        logger.info("Rebuilt trend of project {} for user {}: {} points ({} removed)",
+                projectName, userId, written, removed);
+        return written;
+    }
+
+    private ReportTrendPoint toPoint(AnalysisReport report) {
+        ReportTrendPoint point = new ReportTrendPoint();
+        point.setId(report.getId());
+        point.setUserId(report.getUserId());
+        point.setProjectName(report.getProjectName());
+        point.setFileName(report.getFileName());
+        point.setCreatedAt(report.getCreatedAt());
+        point.setCompletedAt(report.getCompletedAt());
+        point.setMetrics(report.getQualityMetrics());
+
+        List<CodeIssue> issues = report.getIssues() != null ? report.getIssues() : List.of();
+        List<String> fingerprints = new ArrayList<>(issues.size());
+        for (CodeIssue issue : issues) {
+            fingerprints.add(fingerprint(issue));
+        }
+        point.setIssueCount(issues.size());
+        point.setIssueFingerprints(fingerprints);
+        return point;
+    }
+
+    // Diffs an existing point again, with its own report's issues if the report still exists
+    private void rediff(ReportTrendPoint point, ReportTrendPoint previous, List<CodeIssue> previousIssues) {
+        diff(point, issuesOf(point.getId()), previous, previousIssues);
+        trendRepository.save(point);
+    }
+
+    /**
+     * Sets the delta of {@code point} against {@code previous}. Counts come from the
+     * fingerprints alone; the new and fixed issues are listed when the issues themselves are
+     * at hand, and the previous report's are read only when something was fixed.
+     */
+    private void diff(ReportTrendPoint point, List<CodeIssue> issues,
+                      ReportTrendPoint previous, List<CodeIssue> previousIssues) {
+        Map<String, Integer> unmatched = new HashMap<>();
+        if (previous != null) {
+            for (String fingerprint : previous.getIssueFingerprints()) {
+                unmatched.merge(fingerprint, 1, Integer::sum);
+            }
+        }
+
+        List<String> fingerprints = point.getIssueFingerprints();
+        boolean listable = issues != null && issues.size() == fingerprints.size();
+        List<CodeIssue> newIssues = new ArrayList<>();
+        int persisting = 0;
+        for (int i = 0; i < fingerprints.size(); i++) {
+            if (unmatched.merge(fingerprints.get(i), -1, Integer::sum) >= 0) {
+                persisting++;
+            } else {
+                unmatched.remove(fingerprints.get(i));
+                if (listable && newIssues.size() < maxListedIssues) {
+                    newIssues.add(issues.get(i));
+                }
+            }
+        }
+        int fixed = unmatched.values().stream().mapToInt(Integer::intValue).sum();
+
+        List<CodeIssue> fixedIssues = new ArrayList<>();
+        if (fixed > 0) {
+            if (previousIssues == null) {
+                previousIssues = issuesOf(previous.getId());
+            }
+            // Read back by value: the previous report may have been expired, or re-completed since
+            if (previousIssues != null) {
+                for (CodeIssue issue : previousIssues) {
+                    if (fixedIssues.size() >= maxListedIssues) {
+                        break;
+                    }
+                    String fingerprint = fingerprint(issue);
+                    if (unmatched.getOrDefault(fingerprint, 0) > 0) {
+                        unmatched.merge(fingerprint, -1, Integer::sum);
+                        fixedIssues.add(issue);
+                    }
+                }
+            }
+        }
+
+        point.setPreviousReportId(previous != null ? previous.getId() : null);
+        point.setNewIssueCount(fingerprints.size() - persisting);
+        point.setPersistingIssueCount(persisting);
+        point.setFixedIssueCount(fixed);
+        point.setNewIssues(newIssues);
+        point.setFixedIssues(fixedIssues);
+    }
+
+    private List<CodeIssue> issuesOf(String reportId) {
+        Query query = Query.query(Criteria.where("_id").is(reportId));
+        query.fields().include("issues");
+        AnalysisReport report = mongoTemplate.findOne(query, AnalysisReport.class);
+        if (report == null) {
+            return null;
+        }
+        return report.getIssues() != null ? report.getIssues() : List.of();
+    }
+
+    // Type, normalized description and line; hashed so points stay small whatever the descriptions
+    static String fingerprint(CodeIssue issue) {
+        String description = issue.getDescription() != null
+                ? issue.getDescription().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT)
+                : "";
+        String key = issue.getType() + "\u0000" + description + "\u0000" + issue.getLineNumber();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HEX.formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.devflow.report.service;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Fixed-size worker pools owned by the services that use them. They are not beans, so none of
+ * them replaces the task executor Boot would otherwise configure for {@code @Async} and the like.
+ */
+final class WorkerPools {
+
+    private WorkerPools() {
+    }
+
+    /**
+     * A started pool of {@code size} threads with an unbounded queue. Work still queued on
+     * shutdown is dropped.
+     */
+    static ThreadPoolTaskExecutor fixed(String threadNamePrefix, int size) {
+        return start(threadNamePrefix, size, 0);
+    }
+
+    /**
+     * Like {@link #fixed}, but shutdown waits up to {@code awaitSeconds} for queued and running
+     * work to finish.
+     */
+    static ThreadPoolTaskExecutor draining(String threadNamePrefix, int size, int awaitSeconds) {
+        return start(threadNamePrefix, size, awaitSeconds);
+    }
+
+    /** Shuts the pool down; a pool that was never started is ignored. */
+    static void stop(ThreadPoolTaskExecutor executor) {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ThreadPoolTaskExecutor start(String threadNamePrefix, int size, int awaitSeconds) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        if (awaitSeconds > 0) {
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(awaitSeconds);
+        }
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,152 @@
+package com.devflow.report.service;
+
+import com.devflow.report.model.CodeIssue;
+import com.devflow.report.model.IssueSeverity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IssueClassifierTest {
+
+    private final IssueClassifier classifier = new IssueClassifier();
+
+    @Test
+    void leadingMarkerSetsSeverityAndIsStripped() {
+        CodeIssue issue = classifier.classify("[HIGH] Unused variable count");
+
+        assertEquals(IssueSeverity.HIGH, issue.getSeverity());
+        assertEquals("style", issue.getType());
+        assertEquals("Unused variable count", issue.getDescription());
+    }
+
+    @Test
+    void colonMarkerSetsSeverity() {
+        CodeIssue issue = classifier.classify("Blocker: password stored in plain text");
+
+        assertEquals(IssueSeverity.CRITICAL, issue.getSeverity());
+        assertEquals("security", issue.getType());
+        assertEquals("password stored in plain text", issue.getDescription());
+    }
+
+    @Test
+    void trailingMarkerOverridesKeywordsAndStaysInDescription() {
+        CodeIssue issue = classifier.classify("Possible null pointer dereference (severity: low)");
+
+        assertEquals(IssueSeverity.LOW, issue.getSeverity());
+        assertEquals("bug", issue.getType());
+        assertEquals("Possible null pointer dereference (severity: low)", issue.getDescription());
+    }
+
+    @Test
+    void leadingLevelWordInSentenceIsNotAMarker() {
+        CodeIssue issue = classifier.classify("High complexity in method parse");
+
+        assertEquals(IssueSeverity.MEDIUM, issue.getSeverity());
+        assertEquals("complexity", issue.getType());
+        assertEquals("High complexity in method parse", issue.getDescription());
+    }
+
+    @Test
+    void severityFollowsKeywordsWithoutMarker() {
+        assertEquals(IssueSeverity.CRITICAL, classifier.classify("SQL injection in query builder").getSeverity());
+        assertEquals(IssueSeverity.HIGH, classifier.classify("Possible race condition on counter").getSeverity());
+        assertEquals(IssueSeverity.LOW, classifier.classify("Minor: trailing whitespace").getSeverity());
+    }
+
+    @Test
+    void unknownTextIsGeneral() {
+        CodeIssue issue = classifier.classify("Something looks off here");
+
+        assertEquals(IssueClassifier.GENERAL, issue.getType());
+        assertEquals(IssueSeverity.MEDIUM, issue.getSeverity());
+    }
+
+    @Test
+    void lineReferences() {
+        assertEquals(42, IssueClassifier.lineOf("Unused import on line 42"));
+        assertEquals(10, IssueClassifier.lineOf("Duplicated block in lines 10-12"));
+        assertEquals(3, IssueClassifier.lineOf("Magic number on line #3"));
+        assertEquals(7, IssueClassifier.lineOf("Long method at ln 7"));
+        assertEquals(8, IssueClassifier.lineOf("Empty catch block at L8"));
+        assertEquals(42, IssueClassifier.lineOf("Resource leak in Foo.java:42"));
+        assertEquals(0, IssueClassifier.lineOf("Method has too many parameters"));
+        assertEquals(0, IssueClassifier.lineOf("Blames 3 developers"));
+    }
+
+    @Test
+    void dashRemedyIsSplitOffAndNotClassified() {
+        CodeIssue issue = classifier.classify("Magic number on line 3 - use a constant and cache it");
+
+        assertEquals("Magic number on line 3", issue.getDescription());
+        assertEquals("Use a constant and cache it", issue.getSuggestion());
+        assertEquals("style", issue.getType());
+        assertEquals(IssueSeverity.LOW, issue.getSeverity());
+        assertEquals(3, issue.getLineNumber());
+    }
+
+    @Test
+    void labelledRemedyIsSplitOff() {
+        CodeIssue issue = classifier.classify("Stream not closed. Suggestion: use try-with-resources");
+
+        assertEquals("Stream not closed.", issue.getDescription());
+        assertEquals("Use try-with-resources", issue.getSuggestion());
+        assertEquals("resource", issue.getType());
+    }
+
+    @Test
+    void sentenceRemedyIsSplitOff() {
+        CodeIssue issue = classifier.classify("Lookup in loop is quadratic; consider a set instead");
+
+        assertEquals("Lookup in loop is quadratic", issue.getDescription());
+        assertEquals("Consider a set instead", issue.getSuggestion());
+        assertEquals("performance", issue.getType());
+    }
+
+    @Test
+    void lineReferenceInRemedyIsKept() {
+        CodeIssue issue = classifier.classify("Unused variable tmp - remove it from line 12");
+
+        assertEquals("Unused variable tmp", issue.getDescription());
+        assertEquals(12, issue.getLineNumber());
+    }
+
+    @Test
+    void leadingRemedyWordIsNotSplit() {
+        CodeIssue issue = classifier.classify("Suggestion: add tests for the parser");
+
+        assertEquals("Suggestion: add tests for the parser", issue.getDescription());
+        assertNull(issue.getSuggestion());
+    }
+
+    @Test
+    void classifyListSkipsBlankEntries() {
+        List<CodeIssue> issues = classifier.classify(Arrays.asList("Unused import", null, "  ", "Deadlock risk"));
+
+        assertEquals(2, issues.size());
+        assertEquals("style", issues.get(0).getType());
+        assertEquals("concurrency", issues.get(1).getType());
+        assertTrue(classifier.classify((List<String>) null).isEmpty());
+    }
+
+    @Test
+    void completeFillsOnlyMissingFields() {
+        CodeIssue partial = new CodeIssue(null, null, "Memory leak in cache on line 9", 0, null);
+        CodeIssue set = new CodeIssue(IssueSeverity.LOW, "custom", "Memory leak on line 9", 4, null);
+        List<CodeIssue> issues = new ArrayList<>(List.of(partial, set));
+
+        classifier.complete(issues);
+
+        assertEquals(IssueSeverity.HIGH, partial.getSeverity());
+        assertEquals("resource", partial.getType());
+        assertEquals(9, partial.getLineNumber());
+        assertEquals(IssueSeverity.LOW, set.getSeverity());
+        assertEquals("custom", set.getType());
+        assertEquals(4, set.getLineNumber());
+    }
+}